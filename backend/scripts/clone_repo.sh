@@ -2,12 +2,15 @@
 set -e
 
 REPO_URL="$1"
+CLONE_NAME="$2"
 
 echo "Current directory: $(pwd)"
 
 mkdir -p $(pwd)/backend/temp/repos
-REPO_NAME="$(basename -s .git "$REPO_URL")"
-CLONE_DIR="$(pwd)/backend/temp/repos/$REPO_NAME"
+if [ -z "$CLONE_NAME" ]; then
+  CLONE_NAME="$(basename -s .git "$REPO_URL")"
+fi
+CLONE_DIR="$(pwd)/backend/temp/repos/$CLONE_NAME"
 
 echo "Removing if already cloned"
 rm -rf "$CLONE_DIR"
@@ -12,11 +12,14 @@ REPO_PATH="$(pwd)/backend/temp/repos/$REPO_NAME"
 REPORT_XML="$(pwd)/backend/temp/analysis/$REPO_NAME.xml"
 REPORT_JSON="$(pwd)/backend/temp/analysis/$REPO_NAME.json"
 COMMIT_JSON="$(pwd)/backend/temp/commits/$REPO_NAME.json"
-TEMP_FILE="$(pwd)/backend/temp/files/$REPO_NAME.java"
+TEMP_FILES="$(pwd)/backend/temp/files/$REPO_NAME"
 
 echo "Removing cloned repository..."
 rm -rf "$REPO_PATH"
 
+echo "Removing patch worktrees..."
+rm -rf "$REPO_PATH.worktrees"
+
 echo "Removing analysis report xml"
 rm -rf "$REPORT_XML"
 
@@ -27,5 +30,5 @@ echo "Removing commit list"
 rm -rf "$COMMIT_JSON"
 
 echo "Removing temporary files"
-rm -rf "$TEMP_FILE"
+rm -f "$TEMP_FILES".java "$TEMP_FILES"-*.java
 echo "Completed cleaning up resources..."
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.codelyzer.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Thread pools used by the analysis pipeline.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Bounded pool that runs whole pipeline jobs; extra submissions wait in the queue
+     * and are rejected once the queue is full.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor jobExecutor(@Value("${codelyzer.jobs.concurrency:4}") int concurrency,
+                                              @Value("${codelyzer.jobs.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("codelyzer-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Pool that runs the individual stages of every job's stage graph. Job threads only wait on
+     * their graph, so stages never run on {@code jobExecutor} and cannot deadlock it.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor stageExecutor(@Value("${codelyzer.jobs.stage-threads:16}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("codelyzer-stage-");
+        return executor;
+    }
+
+    /**
+     * Pool on which a job's fixed files are committed, pushed and turned into pull requests.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor prExecutor(@Value("${codelyzer.pr.concurrency:4}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix("codelyzer-pr-");
+        return executor;
+    }
+
+    /**
+     * Pool running the fix, commit and publish workers of pull request pipelines. It has a thread
+     * for every worker of {@code max-jobs} pipelines; {@link com.codelyzer.backend.service.PullRequestPipeline}
+     * admits no more pipelines than that, so the total stays bounded across jobs.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor pipelineExecutor(@Value("${codelyzer.pr.pipeline.max-jobs:4}") int maxJobs,
+                                                   @Value("${codelyzer.pr.pipeline.fix-workers:3}") int fixWorkers,
+                                                   @Value("${codelyzer.pr.pipeline.commit-workers:1}") int commitWorkers) {
+        int threads = Math.max(1, maxJobs) * (Math.max(1, fixWorkers) + Math.max(1, commitWorkers) + 1);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("codelyzer-pipeline-");
+        return executor;
+    }
+
+    /**
+     * Shared pool for outbound LLM calls; its size caps concurrent requests across all jobs.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor llmExecutor(@Value("${codelyzer.llm.threads:16}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("codelyzer-llm-");
+        return executor;
+    }
+
+    /**
+     * Executor handed to the LLM {@link java.net.http.HttpClient} for its async I/O callbacks.
+     * Kept apart from {@code llmExecutor} so blocked callers never starve response handling.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor llmHttpExecutor(@Value("${codelyzer.llm.http-threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("codelyzer-llm-http-");
+        return executor;
+    }
+}
@@ -1,25 +1,50 @@
 package com.codelyzer.backend.controller;
 
+import com.codelyzer.backend.entity.JobResponseDto;
+import com.codelyzer.backend.entity.JobResult;
 import com.codelyzer.backend.entity.RepoUrlDto;
 import com.codelyzer.backend.entity.Stages;
 import com.codelyzer.backend.service.CompleteService;
+import com.codelyzer.backend.service.FixCacheService;
+import com.codelyzer.backend.service.LlmGuard;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 
+import java.net.URI;
+import java.util.Map;
+
 @RestController
 public class ApiController {
 
     private static final Logger log = LoggerFactory.getLogger(ApiController.class);
     private final CompleteService completeService;
+    private final FixCacheService fixCacheService;
+    private final LlmGuard llmGuard;
 
-    public ApiController(CompleteService completeService) {
+    public ApiController(CompleteService completeService, FixCacheService fixCacheService, LlmGuard llmGuard) {
         this.completeService = completeService;
+        this.fixCacheService = fixCacheService;
+        this.llmGuard = llmGuard;
+    }
+
+    @GetMapping("/cache/llm/stats")
+    public Map<String, Long> getLlmCacheStats() {
+        return fixCacheService.stats();
+    }
+
+    @GetMapping("/llm/stats")
+    public Map<String, Object> getLlmStats() {
+        return llmGuard.stats();
     }
 
     @GetMapping(value = "/stages-status", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
@@ -27,10 +52,34 @@ public class ApiController {
         return completeService.streamUpload();
     }
 
+    @GetMapping(value = "/jobs/{jobId}/stages", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<Stages>> getJobStages(@PathVariable String jobId) {
+        return completeService.streamJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs/{jobId}/result")
+    public ResponseEntity<JobResult> getJobResult(@PathVariable String jobId) {
+        return completeService.findResult(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/upload")
-    public void uploadRepoURL(@RequestBody RepoUrlDto repoUrlDto)  {
-        Stages stages = new Stages();
-        System.out.println(repoUrlDto.getRepoUrl());
-        completeService.startOperations(stages, repoUrlDto.getRepoUrl());
+    public ResponseEntity<JobResponseDto> uploadRepoURL(@RequestBody RepoUrlDto repoUrlDto)  {
+        log.info("Upload requested for {}", repoUrlDto.getRepoUrl());
+        try {
+            JobResponseDto response = completeService.submit(repoUrlDto.getRepoUrl());
+            return ResponseEntity.accepted()
+                    .location(URI.create(response.getStagesUrl()))
+                    .body(response);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected upload for {}: {}", repoUrlDto.getRepoUrl(), e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (TaskRejectedException e) {
+            log.warn("Job queue full, rejecting upload for {}", repoUrlDto.getRepoUrl());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
     }
 }
@@ -0,0 +1,87 @@
+package com.codelyzer.backend.entity;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Violations of one analysis run, grouped by file path in sorted order.
+ */
+public class AnalysisReport {
+    private final Map<String, List<Violation>> violationsByFile = new TreeMap<>();
+
+    /**
+     * Registers a file, with or without violations.
+     */
+    public void addFile(String filePath) {
+        violationsByFile.computeIfAbsent(filePath, key -> new ArrayList<>());
+    }
+
+    public void addViolation(Violation violation) {
+        violationsByFile.computeIfAbsent(violation.getFilePath(), key -> new ArrayList<>()).add(violation);
+    }
+
+    public void addViolations(String filePath, List<Violation> violations) {
+        violationsByFile.computeIfAbsent(filePath, key -> new ArrayList<>()).addAll(violations);
+    }
+
+    /**
+     * Adds every file and violation of another report, e.g. one produced for a shard of the repository.
+     */
+    public void merge(AnalysisReport other) {
+        other.violationsByFile.forEach(this::addViolations);
+    }
+
+    public Map<String, List<Violation>> getViolationsByFile() {
+        return Collections.unmodifiableMap(violationsByFile);
+    }
+
+    public int getFileCount() {
+        return violationsByFile.size();
+    }
+
+    public int getViolationCount() {
+        return violationsByFile.values().stream().mapToInt(List::size).sum();
+    }
+
+    /**
+     * Reads a report written by {@link #toJson()}.
+     */
+    public static AnalysisReport fromJson(JSONObject json) {
+        AnalysisReport report = new AnalysisReport();
+        JSONArray files = json.getJSONObject("checkstyle").optJSONArray("file");
+        if (files == null) return report;
+        for (int i = 0; i < files.length(); i++) {
+            JSONObject file = files.getJSONObject(i);
+            String filePath = file.getString("name");
+            report.addFile(filePath);
+            JSONArray errors = file.optJSONArray("error");
+            if (errors == null) continue;
+            for (int j = 0; j < errors.length(); j++) {
+                report.addViolation(Violation.fromJson(filePath, errors.getJSONObject(j)));
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Same layout that {@code XML.toJSONObject} produced for the Checkstyle XML report.
+     */
+    public JSONObject toJson() {
+        JSONArray files = new JSONArray();
+        violationsByFile.forEach((filePath, violations) -> {
+            JSONObject file = new JSONObject();
+            file.put("name", filePath);
+            JSONArray errors = new JSONArray();
+            violations.forEach(violation -> errors.put(violation.toJson()));
+            file.put("error", errors);
+            files.put(file);
+        });
+        return new JSONObject().put("checkstyle", new JSONObject().put("file", files));
+    }
+}
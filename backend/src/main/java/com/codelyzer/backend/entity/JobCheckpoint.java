@@ -0,0 +1,258 @@
+package com.codelyzer.backend.entity;
+
+import org.json.JSONObject;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Durable progress of one job: which stages finished and what they produced.
+ * Stages of a resumed job read their output from here instead of doing the work again.
+ * Only small values are kept: of the analysis, only the files selected for fixing and the
+ * violations their fixes target are stored.
+ * Stages and pull request workers record into it concurrently, so every access is synchronized.
+ */
+public final class JobCheckpoint {
+
+    public enum Status {
+        /** Running, or interrupted by a restart if found on startup. */
+        RUNNING,
+        /** Stopped before cleanup; its workspace is kept so a retry can resume. */
+        FAILED,
+        /** Finished and cleaned up. */
+        DONE
+    }
+
+    private final String jobId;
+    private final String mainRepoURL;
+    private final String repoOwner;
+    private final String repoName;
+    private final Instant createdAt;
+    private Instant updatedAt;
+    private Status status;
+    private String headSha;
+    private String forkRepoURL;
+    private String cloneDir;
+    private AnalysisReport selection;
+    private final Map<String, FileCheckpoint> files = new LinkedHashMap<>();
+
+    private JobCheckpoint(String jobId, String mainRepoURL, String repoOwner, String repoName,
+                          Instant createdAt, Instant updatedAt, Status status) {
+        this.jobId = jobId;
+        this.mainRepoURL = mainRepoURL;
+        this.repoOwner = repoOwner;
+        this.repoName = repoName;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.status = status;
+    }
+
+    /**
+     * Empty checkpoint of a job that is about to run.
+     */
+    public static JobCheckpoint start(JobContext context) {
+        Instant now = Instant.now();
+        return new JobCheckpoint(context.getJobId(), context.getMainRepoURL(), context.getRepoOwner(),
+                context.getRepoName(), now, now, Status.RUNNING);
+    }
+
+    /**
+     * Reads a checkpoint written by {@link #toJson()}.
+     */
+    public static JobCheckpoint fromJson(JSONObject json) {
+        JobCheckpoint checkpoint = new JobCheckpoint(json.getString("jobId"), json.getString("mainRepoURL"),
+                json.getString("repoOwner"), json.getString("repoName"),
+                Instant.parse(json.getString("createdAt")), Instant.parse(json.getString("updatedAt")),
+                Status.valueOf(json.getString("status")));
+        checkpoint.headSha = json.optString("headSha", null);
+        checkpoint.forkRepoURL = json.optString("forkRepoURL", null);
+        checkpoint.cloneDir = json.optString("cloneDir", null);
+        JSONObject selection = json.optJSONObject("selection");
+        checkpoint.selection = selection != null ? AnalysisReport.fromJson(selection) : null;
+        JSONObject files = json.optJSONObject("files");
+        if (files != null) {
+            for (String filePath : files.keySet()) {
+                JSONObject file = files.getJSONObject(filePath);
+                FileCheckpoint fileCheckpoint = new FileCheckpoint();
+                fileCheckpoint.fixedFile = file.optString("fixedFile", null);
+                fileCheckpoint.branch = file.optString("branch", null);
+                fileCheckpoint.pullRequest = file.optString("pullRequest", null);
+                checkpoint.files.put(filePath, fileCheckpoint);
+            }
+        }
+        return checkpoint;
+    }
+
+    public synchronized JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("jobId", jobId);
+        json.put("mainRepoURL", mainRepoURL);
+        json.put("repoOwner", repoOwner);
+        json.put("repoName", repoName);
+        json.put("createdAt", createdAt.toString());
+        json.put("updatedAt", updatedAt.toString());
+        json.put("status", status.name());
+        json.put("headSha", headSha);
+        json.put("forkRepoURL", forkRepoURL);
+        json.put("cloneDir", cloneDir);
+        json.put("selection", selection != null ? selection.toJson() : null);
+        JSONObject filesJson = new JSONObject();
+        files.forEach((filePath, file) -> filesJson.put(filePath, new JSONObject()
+                .put("fixedFile", file.fixedFile)
+                .put("branch", file.branch)
+                .put("pullRequest", file.pullRequest)));
+        json.put("files", filesJson);
+        return json;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getMainRepoURL() {
+        return mainRepoURL;
+    }
+
+    public String getRepoOwner() {
+        return repoOwner;
+    }
+
+    public String getRepoName() {
+        return repoName;
+    }
+
+    public synchronized Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    public synchronized void setStatus(Status status) {
+        this.status = status;
+        touch();
+    }
+
+    /**
+     * Head commit the stored outputs were produced from, or null before the metadata stage ran.
+     */
+    public synchronized String getHeadSha() {
+        return headSha;
+    }
+
+    /**
+     * Binds the checkpoint to a head commit. Clone, analysis and fix outputs of another commit
+     * are stale and are dropped; the fork does not depend on the commit and is kept.
+     * @return true if the checkpoint changed
+     */
+    public synchronized boolean startAt(String headSha) {
+        if (headSha == null || headSha.equals(this.headSha)) {
+            return false;
+        }
+        if (this.headSha != null) {
+            cloneDir = null;
+            selection = null;
+            files.clear();
+        }
+        this.headSha = headSha;
+        touch();
+        return true;
+    }
+
+    public synchronized String getForkRepoURL() {
+        return forkRepoURL;
+    }
+
+    public synchronized void recordFork(String forkRepoURL) {
+        this.forkRepoURL = forkRepoURL;
+        touch();
+    }
+
+    public synchronized String getCloneDir() {
+        return cloneDir;
+    }
+
+    public synchronized void recordClone(String cloneDir) {
+        this.cloneDir = cloneDir;
+        touch();
+    }
+
+    /**
+     * Files selected for fixing with the violations to fix, or null before the analysis stage succeeded.
+     */
+    public synchronized AnalysisReport getSelection() {
+        return selection;
+    }
+
+    public synchronized void recordSelection(AnalysisReport selection) {
+        this.selection = selection;
+        touch();
+    }
+
+    /**
+     * Temp file holding the fixed content of a source file, or null if it was not fixed yet.
+     */
+    public synchronized String getFixedFile(String filePath) {
+        FileCheckpoint file = files.get(filePath);
+        return file != null ? file.fixedFile : null;
+    }
+
+    public synchronized void recordFixed(String filePath, String fixedFile) {
+        files.computeIfAbsent(filePath, key -> new FileCheckpoint()).fixedFile = fixedFile;
+        touch();
+    }
+
+    /**
+     * Patch branch of a source file that was pushed to the fork, or null if none was pushed yet.
+     */
+    public synchronized String getBranch(String filePath) {
+        FileCheckpoint file = files.get(filePath);
+        return file != null ? file.branch : null;
+    }
+
+    public synchronized void recordPushed(String filePath, String branch) {
+        files.computeIfAbsent(filePath, key -> new FileCheckpoint()).branch = branch;
+        touch();
+    }
+
+    /**
+     * Pull request opened for a source file, or null if none was opened yet.
+     */
+    public synchronized String getPullRequest(String filePath) {
+        FileCheckpoint file = files.get(filePath);
+        return file != null ? file.pullRequest : null;
+    }
+
+    public synchronized void recordPullRequest(String filePath, String pullRequest) {
+        files.computeIfAbsent(filePath, key -> new FileCheckpoint()).pullRequest = pullRequest;
+        touch();
+    }
+
+    /**
+     * URLs of every pull request the job opened so far, including those of earlier attempts.
+     */
+    public synchronized List<String> getPullRequests() {
+        List<String> pullRequests = new ArrayList<>();
+        files.values().forEach(file -> {
+            if (file.pullRequest != null) pullRequests.add(file.pullRequest);
+        });
+        return pullRequests;
+    }
+
+    private void touch() {
+        updatedAt = Instant.now();
+    }
+
+    /**
+     * How far one source file got through fix → push → pull request.
+     */
+    private static final class FileCheckpoint {
+        private String fixedFile;
+        private String branch;
+        private String pullRequest;
+    }
+}
@@ -0,0 +1,108 @@
+package com.codelyzer.backend.entity;
+
+import java.util.UUID;
+
+/**
+ * Immutable description of one pipeline run.
+ * Every stage reads the repository coordinates from here, so overlapping jobs never share state.
+ */
+public final class JobContext {
+    private final String jobId;
+    private final String mainRepoURL;
+    private final String repoName;
+    private final String repoOwner;
+    private final String forkRepoURL;
+    private final RepoMetadata metadata;
+
+    private JobContext(String jobId, String mainRepoURL, String repoName,
+                       String repoOwner, String forkRepoURL, RepoMetadata metadata) {
+        this.jobId = jobId;
+        this.mainRepoURL = mainRepoURL;
+        this.repoName = repoName;
+        this.repoOwner = repoOwner;
+        this.forkRepoURL = forkRepoURL;
+        this.metadata = metadata;
+    }
+
+    /**
+     * Builds a context for a new job from the upstream repository URL.
+     */
+    public static JobContext fromRepoUrl(String mainRepoURL) {
+        return of(UUID.randomUUID().toString().substring(0, 8), mainRepoURL);
+    }
+
+    /**
+     * Rebuilds the context of a stored job. The job id, and with it the workspace, stays the same,
+     * so the resumed run finds the clone and temp files of the interrupted one.
+     */
+    public static JobContext resume(String jobId, String mainRepoURL) {
+        return of(jobId, mainRepoURL);
+    }
+
+    private static JobContext of(String jobId, String mainRepoURL) {
+        String cleanedUrl = mainRepoURL.endsWith(".git")
+                ? mainRepoURL.substring(0, mainRepoURL.length() - 4)
+                : mainRepoURL;
+        String[] parts = cleanedUrl.split("/");
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Invalid GitHub repo URL: " + mainRepoURL);
+        }
+        return new JobContext(jobId, mainRepoURL, parts[parts.length - 1], parts[parts.length - 2], null, null);
+    }
+
+    /**
+     * Returns a copy of this context that also knows the fork URL.
+     */
+    public JobContext withForkRepoURL(String forkRepoURL) {
+        return new JobContext(jobId, mainRepoURL, repoName, repoOwner, forkRepoURL, metadata);
+    }
+
+    /**
+     * Returns a copy of this context that also carries the upstream repository metadata.
+     */
+    public JobContext withMetadata(RepoMetadata metadata) {
+        return new JobContext(jobId, mainRepoURL, repoName, repoOwner, forkRepoURL, metadata);
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getMainRepoURL() {
+        return mainRepoURL;
+    }
+
+    public String getRepoName() {
+        return repoName;
+    }
+
+    public String getRepoOwner() {
+        return repoOwner;
+    }
+
+    public String getForkRepoURL() {
+        return forkRepoURL;
+    }
+
+    /**
+     * Upstream metadata, or null until the metadata stage has run.
+     */
+    public RepoMetadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * Branch the fixes are based on and pull requests target: the upstream default branch,
+     * or {@code main} when it is not known.
+     */
+    public String getBaseBranch() {
+        return metadata != null && metadata.getDefaultBranch() != null ? metadata.getDefaultBranch() : "main";
+    }
+
+    /**
+     * Name used for every temp resource of this job (clone dir, reports, temp files).
+     */
+    public String getWorkspaceName() {
+        return repoName + "-" + jobId;
+    }
+}
@@ -0,0 +1,38 @@
+package com.codelyzer.backend.entity;
+
+public class JobResponseDto {
+    /** A new pipeline run was queued. */
+    public static final String QUEUED = "queued";
+    /** The same repository is already running; the caller shares that job. */
+    public static final String JOINED = "joined";
+    /** An earlier job for the same repository failed and continues from its last checkpoint. */
+    public static final String RESUMED = "resumed";
+
+    private final String jobId;
+    private final String status;
+    private final String stagesUrl;
+    private final String resultUrl;
+
+    public JobResponseDto(String jobId, String status) {
+        this.jobId = jobId;
+        this.status = status;
+        this.stagesUrl = "/jobs/" + jobId + "/stages";
+        this.resultUrl = "/jobs/" + jobId + "/result";
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getStagesUrl() {
+        return stagesUrl;
+    }
+
+    public String getResultUrl() {
+        return resultUrl;
+    }
+}
@@ -0,0 +1,63 @@
+package com.codelyzer.backend.entity;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Outcome of a successful pipeline run for one repository at one head commit.
+ * Kept by the result cache so re-submissions of an unchanged repository are answered without a run.
+ */
+public final class JobResult {
+    private final String jobId;
+    private final String repository;
+    private final String headSha;
+    private final Instant finishedAt;
+    private final Stages stages;
+    private final AnalysisReport report;
+    private final List<String> pullRequests;
+
+    public JobResult(String jobId, String repository, String headSha, Stages stages,
+                     AnalysisReport report, List<String> pullRequests) {
+        this.jobId = jobId;
+        this.repository = repository;
+        this.headSha = headSha;
+        this.finishedAt = Instant.now();
+        this.stages = stages;
+        this.report = report;
+        this.pullRequests = List.copyOf(pullRequests);
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getRepository() {
+        return repository;
+    }
+
+    public String getHeadSha() {
+        return headSha;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Stages getStages() {
+        return stages;
+    }
+
+    /**
+     * Violations found by the analysis.
+     */
+    public AnalysisReport getReport() {
+        return report;
+    }
+
+    /**
+     * URLs of the pull requests opened with the fixes, one per fixed file.
+     */
+    public List<String> getPullRequests() {
+        return pullRequests;
+    }
+}
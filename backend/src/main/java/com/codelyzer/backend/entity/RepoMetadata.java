@@ -0,0 +1,85 @@
+package com.codelyzer.backend.entity;
+
+import java.util.List;
+
+/**
+ * Repository facts fetched once per job in a single GraphQL query and shared by every stage.
+ */
+public final class RepoMetadata {
+    private final boolean exists;
+    private final String defaultBranch;
+    private final String headSha;
+    private final boolean fork;
+    private final List<Commit> commits;
+
+    public RepoMetadata(boolean exists, String defaultBranch, String headSha, boolean fork, List<Commit> commits) {
+        this.exists = exists;
+        this.defaultBranch = defaultBranch;
+        this.headSha = headSha;
+        this.fork = fork;
+        this.commits = List.copyOf(commits);
+    }
+
+    public static RepoMetadata missing() {
+        return new RepoMetadata(false, null, null, false, List.of());
+    }
+
+    public boolean exists() {
+        return exists;
+    }
+
+    /**
+     * Name of the default branch, or null for an empty repository.
+     */
+    public String getDefaultBranch() {
+        return defaultBranch;
+    }
+
+    /**
+     * Commit the default branch points at, or null for an empty repository.
+     */
+    public String getHeadSha() {
+        return headSha;
+    }
+
+    public boolean isFork() {
+        return fork;
+    }
+
+    /**
+     * Latest commits of the default branch, newest first.
+     */
+    public List<Commit> getCommits() {
+        return commits;
+    }
+
+    public static final class Commit {
+        private final String sha;
+        private final String author;
+        private final String date;
+        private final String message;
+
+        public Commit(String sha, String author, String date, String message) {
+            this.sha = sha;
+            this.author = author;
+            this.date = date;
+            this.message = message;
+        }
+
+        public String getSha() {
+            return sha;
+        }
+
+        public String getAuthor() {
+            return author;
+        }
+
+        public String getDate() {
+            return date;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -6,6 +6,7 @@ package com.codelyzer.backend.entity;
  * -1 = failed
  */
 public class Stages {
+    private String jobId;
     private int upload;
     private int fork;
     private int clone;
@@ -14,6 +15,45 @@ public class Stages {
     private int pullRequests;
     private int cleaningResources;
 
+    public Stages() {
+    }
+
+    public Stages(String jobId) {
+        this.jobId = jobId;
+    }
+
+    /**
+     * Copy of the current state, safe to hand to subscribers while the job keeps updating this one.
+     */
+    public Stages snapshot() {
+        Stages copy = new Stages(jobId);
+        copy.upload = upload;
+        copy.fork = fork;
+        copy.clone = clone;
+        copy.analysis = analysis;
+        copy.AI = AI;
+        copy.pullRequests = pullRequests;
+        copy.cleaningResources = cleaningResources;
+        return copy;
+    }
+
+    /**
+     * Takes over every flag of another job, e.g. of the run whose cached result this job reuses.
+     */
+    public void copyFlagsFrom(Stages other) {
+        upload = other.upload;
+        fork = other.fork;
+        clone = other.clone;
+        analysis = other.analysis;
+        AI = other.AI;
+        pullRequests = other.pullRequests;
+        cleaningResources = other.cleaningResources;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
     public void setUploadSuccess() {
         upload = 1;
     }
@@ -0,0 +1,79 @@
+package com.codelyzer.backend.entity;
+
+import org.json.JSONObject;
+
+/**
+ * One Checkstyle violation, as reported for a single file.
+ */
+public final class Violation {
+    private final String filePath;
+    private final int line;
+    private final int column;
+    private final String severity;
+    private final String message;
+    private final String source;
+
+    public Violation(String filePath, int line, int column, String severity, String message, String source) {
+        this.filePath = filePath;
+        this.line = line;
+        this.column = column;
+        this.severity = severity;
+        this.message = message;
+        this.source = source;
+    }
+
+    /**
+     * Reads a violation written by {@link #toJson()}.
+     */
+    public static Violation fromJson(String filePath, JSONObject json) {
+        return new Violation(filePath,
+                json.optInt("line", -1),
+                json.optInt("column", -1),
+                json.optString("severity", null),
+                json.optString("message", null),
+                json.optString("source", null));
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * @return 1-based line number, or -1 when the report has none
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return 1-based column number, or -1 when the report has none
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    public String getSeverity() {
+        return severity;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Same shape as an {@code error} element of the Checkstyle XML report.
+     */
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        if (line >= 0) json.put("line", line);
+        if (column >= 0) json.put("column", column);
+        json.put("severity", severity);
+        json.put("message", message);
+        json.put("source", source);
+        return json;
+    }
+}
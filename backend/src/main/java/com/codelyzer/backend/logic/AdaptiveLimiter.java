@@ -0,0 +1,63 @@
+package com.codelyzer.backend.logic;
+
+/**
+ * Concurrency limit that adapts to how the downstream service behaves (AIMD).
+ * Every successful call raises the limit by {@code 1/limit}, i.e. by about one per round of calls;
+ * a slow call lowers it slightly and an overload signal (429, 5xx, timeout) halves it.
+ */
+public class AdaptiveLimiter {
+
+    public enum Signal { SUCCESS, SLOW, OVERLOADED, IGNORED }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Blocks until a call may start.
+     */
+    public synchronized void acquire() throws InterruptedException {
+        while (inFlight >= (int) limit) {
+            wait();
+        }
+        inFlight++;
+    }
+
+    /**
+     * Starts a call only if the limit allows it right now.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) return false;
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Ends a call started with {@link #acquire()} or {@link #tryAcquire()} and adapts the limit.
+     */
+    public synchronized void release(Signal signal) {
+        inFlight--;
+        switch (signal) {
+            case SUCCESS -> limit = Math.min(maxLimit, limit + 1.0 / limit);
+            case SLOW -> limit = Math.max(minLimit, limit * 0.9);
+            case OVERLOADED -> limit = Math.max(minLimit, limit * 0.5);
+            case IGNORED -> { }
+        }
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,34 @@
+package com.codelyzer.backend.logic;
+
+import com.codelyzer.backend.entity.Violation;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Mechanical fix for one kind of Checkstyle violation, applied without the LLM.
+ * Implementations are Spring beans and are picked up by {@link FixerRegistry}.
+ */
+public interface BlockFixer {
+
+    /**
+     * @return simple names of the checks this fixer handles, e.g. {@code "FileTabCharacter"}
+     */
+    Set<String> checks();
+
+    /**
+     * @param blockLines lines of the error block
+     * @param lineInBlock index of the violation line inside the block
+     * @return the fixed block, or null when this violation cannot be fixed mechanically
+     */
+    List<String> fix(List<String> blockLines, int lineInBlock, Violation violation);
+
+    /**
+     * Text between the first pair of single quotes of a Checkstyle message, e.g. the token name.
+     */
+    static String quoted(String message) {
+        int start = message.indexOf('\'');
+        int end = start < 0 ? -1 : message.indexOf('\'', start + 1);
+        return end < 0 ? null : message.substring(start + 1, end);
+    }
+}
@@ -0,0 +1,93 @@
+package com.codelyzer.backend.logic;
+
+import com.codelyzer.backend.entity.Violation;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams a Checkstyle XML report with StAX.
+ * Only the violations of the current {@code file} element are held in memory, so report size
+ * does not matter.
+ */
+public final class CheckstyleReportParser {
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    /**
+     * Receives the violations of one {@code file} element.
+     */
+    @FunctionalInterface
+    public interface FileHandler {
+        /**
+         * @return false to stop reading the rest of the report
+         */
+        boolean accept(String filePath, List<Violation> violations);
+    }
+
+    private CheckstyleReportParser() {
+    }
+
+    public static void parse(Path report, FileHandler handler) throws IOException, XMLStreamException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(report))) {
+            XMLStreamReader reader = FACTORY.createXMLStreamReader(in);
+            try {
+                String currentFile = null;
+                List<Violation> violations = new ArrayList<>();
+
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String name = reader.getLocalName();
+                        if ("file".equals(name)) {
+                            currentFile = reader.getAttributeValue(null, "name");
+                            violations = new ArrayList<>();
+                        } else if ("error".equals(name) && currentFile != null) {
+                            violations.add(new Violation(currentFile,
+                                    intAttribute(reader, "line"),
+                                    intAttribute(reader, "column"),
+                                    reader.getAttributeValue(null, "severity"),
+                                    reader.getAttributeValue(null, "message"),
+                                    reader.getAttributeValue(null, "source")));
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT
+                            && "file".equals(reader.getLocalName()) && currentFile != null) {
+                        boolean more = handler.accept(currentFile, violations);
+                        currentFile = null;
+                        if (!more) {
+                            return;
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    private static int intAttribute(XMLStreamReader reader, String name) {
+        String value = reader.getAttributeValue(null, name);
+        if (value == null || value.isBlank()) return -1;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
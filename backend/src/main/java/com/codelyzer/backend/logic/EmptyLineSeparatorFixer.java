@@ -0,0 +1,40 @@
+package com.codelyzer.backend.logic;
+
+import com.codelyzer.backend.entity.Violation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Adds the missing blank line before a declaration, or collapses extra blank lines before it.
+ */
+@Component
+public class EmptyLineSeparatorFixer implements BlockFixer {
+
+    @Override
+    public Set<String> checks() {
+        return Set.of("EmptyLineSeparator");
+    }
+
+    @Override
+    public List<String> fix(List<String> blockLines, int lineInBlock, Violation violation) {
+        String message = violation.getMessage();
+        if (message.contains("should be separated from previous line")) {
+            if (lineInBlock > 0 && blockLines.get(lineInBlock - 1).isBlank()) return null;
+            blockLines.add(lineInBlock, "");
+            return blockLines;
+        }
+        if (message.contains("empty lines before")) {
+            int removed = 0;
+            // keep one blank line directly above the violation line
+            for (int i = lineInBlock - 2; i >= 0 && blockLines.get(i).isBlank()
+                    && blockLines.get(i + 1).isBlank(); i--) {
+                blockLines.remove(i);
+                removed++;
+            }
+            return removed > 0 ? blockLines : null;
+        }
+        return null;
+    }
+}
@@ -1,33 +1,80 @@
 package com.codelyzer.backend.logic;
 
+import com.codelyzer.backend.entity.Violation;
+import com.codelyzer.backend.service.FixCacheService;
+import com.codelyzer.backend.service.LlmClient;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
 
 import java.io.BufferedWriter;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 
 /**
  * Safely edits a file based on Checkstyle error blocks provided by FileManager.
  * Integrates Cerebras API to resolve error blocks.
+ * Blocks never overlap, so all blocks of a file are resolved concurrently (up to
+ * {@code codelyzer.llm.block-concurrency}) and spliced back in order.
+ * Blocks with mechanically fixable violations are fixed by the {@link FixerRegistry}; the rest are
+ * looked up in the {@link FixCacheService} before the LLM is called.
  */
+@Component
 public class FileEditor {
+    private static final Logger log = LoggerFactory.getLogger(FileEditor.class);
 
-    @Value("${cerebras.api.key}")
-    private static String CEREBRAS_API_KEY;
-    private static final String CEREBRAS_ENDPOINT = "https://api.cerebras.ai/v1/chat/completions";
-    private static final String MODEL = "qwen-3-235b-a22b-instruct-2507";
+    private static final int MAX_TOKENS = 20000;
+    private static final int DIFF_MAX_TOKENS = 2000;
+    private static final int DIFF_ATTEMPTS = 2;
+    // a fixed block may grow (e.g. an added Javadoc), but not by more than this many lines
+    private static final int MAX_EXTRA_LINES = 15;
+    // bump whenever the prompt changes, so cached fixes of the old prompt are not reused
+    static final String PROMPT_VERSION = "1";
 
-    public static void processFile(FileManager fm, String tempPath, boolean replaceOriginal) throws Exception {
+    private final LlmClient llmClient;
+    private final FixCacheService fixCache;
+    private final FixerRegistry fixerRegistry;
+    private final int blockConcurrency;
+    private final Mode mode;
+    private final boolean streaming;
+    private final Duration blockTimeBudget;
+    private final ThreadPoolTaskExecutor llmExecutor;
+
+    public FileEditor(LlmClient llmClient, FixCacheService fixCache, FixerRegistry fixerRegistry,
+                      @Value("${codelyzer.llm.block-concurrency:5}") int blockConcurrency,
+                      @Value("${codelyzer.llm.mode:file}") String mode,
+                      @Value("${codelyzer.llm.stream:true}") boolean streaming,
+                      @Value("${codelyzer.llm.block-time-budget-ms:30000}") long blockTimeBudgetMs,
+                      @Qualifier("llmExecutor") ThreadPoolTaskExecutor llmExecutor) {
+        this.llmClient = llmClient;
+        this.fixCache = fixCache;
+        this.fixerRegistry = fixerRegistry;
+        this.blockConcurrency = blockConcurrency;
+        this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        this.streaming = streaming;
+        this.blockTimeBudget = Duration.ofMillis(blockTimeBudgetMs);
+        this.llmExecutor = llmExecutor;
+    }
+
+    public void processFile(FileManager fm, String tempPath, boolean replaceOriginal) throws Exception {
         if (fm.shouldSkip()) {
-            System.out.println("Skipping file: " + fm.getFilePath());
+            log.info("Skipping file: {}", fm.getFilePath());
             return;
         }
 
@@ -41,6 +88,7 @@ public class FileEditor {
         int[][] blocks = fm.getErrorLines();
         int blockCount = fm.getErrorCount();
         int blockIndex = 0;
+        String[] resolvedBlocks = resolveBlocks(fm, lines);
 
         try (BufferedWriter writer = Files.newBufferedWriter(temp)) {
             for (int i = 0; i < lines.size(); ) {
@@ -48,11 +96,7 @@ public class FileEditor {
                     int start = blocks[blockIndex][0];
                     int end = Math.min(blocks[blockIndex][1], lines.size() - 1);
 
-                    List<String> blockLines = lines.subList(start, end + 1);
-                    JSONObject errorJson = fm.getErrorJson(blockIndex);
-
-                    // Resolve block with Cerebras
-                    String resolvedBlock = resolveWithCerebras(blockLines, errorJson);
+                    String resolvedBlock = resolvedBlocks[blockIndex];
 
                     // Stream resolved block line by line
                     for (String line : resolvedBlock.split("\n")) {
@@ -73,13 +117,233 @@ public class FileEditor {
 
         if (replaceOriginal) {
             Files.move(temp, original, StandardCopyOption.REPLACE_EXISTING);
-            System.out.println("Processed and replaced file: " + fm.getFilePath());
+            log.info("Processed and replaced file: {}", fm.getFilePath());
         } else {
-            System.out.println("Processed file (temp only): " + tempPath);
+            log.info("Processed file (temp only): {}", tempPath);
+        }
+    }
+
+    /**
+     * Resolves every error block of the file. Blocks that are neither fixed locally nor cached go
+     * to the LLM: in {@code file} mode all of them in one request first, then one request per block
+     * (in parallel when block concurrency is above one) for whatever is still unresolved.
+     * @return resolved text per block index; null for blocks that start past the end of the file
+     */
+    private String[] resolveBlocks(FileManager fm, List<String> lines) throws InterruptedException {
+        int[][] blocks = fm.getErrorLines();
+        int blockCount = fm.getErrorCount();
+        String[] resolved = new String[blockCount];
+        List<BlockRequest> llmBlocks = new ArrayList<>();
+
+        for (int b = 0; b < blockCount; b++) {
+            int start = blocks[b][0];
+            if (start >= lines.size()) {
+                continue;
+            }
+            int end = Math.min(blocks[b][1], lines.size() - 1);
+            List<String> blockLines = List.copyOf(lines.subList(start, end + 1));
+            Violation violation = fm.getViolation(b);
+            int lineInBlock = violation.getLine() - 1 - start;
+
+            String localFix = fixerRegistry.fix(blockLines, lineInBlock, violation);
+            if (localFix != null) {
+                resolved[b] = localFix;
+                continue;
+            }
+
+            String cacheKey = FixCacheService.key(blockLines, violation.getSource(), violation.getMessage(),
+                    lineInBlock, violation.getColumn(), LlmClient.MODEL, PROMPT_VERSION);
+            String cached = fixCache.lookup(cacheKey);
+            if (cached != null) {
+                resolved[b] = cached;
+                continue;
+            }
+            llmBlocks.add(new BlockRequest(b, blockLines, violation, cacheKey));
+        }
+
+        if (mode == Mode.FILE && llmBlocks.size() > 1) {
+            Map<Integer, String> fixes = resolveFileWithCerebras(fm.getFilePath(), llmBlocks);
+            llmBlocks.removeIf(block -> {
+                String fix = fixes.get(block.index);
+                if (fix == null) return false;
+                fixCache.store(block.cacheKey, fix);
+                resolved[block.index] = fix;
+                return true;
+            });
+        }
+
+        Semaphore permits = new Semaphore(Math.max(1, blockConcurrency));
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (BlockRequest block : llmBlocks) {
+            if (blockConcurrency <= 1) {
+                resolved[block.index] = resolveCached(block);
+                continue;
+            }
+            permits.acquire();
+            pending.add(CompletableFuture
+                    .runAsync(() -> resolved[block.index] = resolveCached(block), llmExecutor)
+                    .whenComplete((ignored, error) -> permits.release()));
+        }
+
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        return resolved;
+    }
+
+    /**
+     * Resolves the block through the LLM and caches the fix. Failed calls are not cached
+     * and leave the block as it was.
+     */
+    private String resolveCached(BlockRequest block) {
+        String result = mode == Mode.DIFF
+                ? resolveWithDiff(block.lines, block.violation.toJson())
+                : resolveWithCerebras(block.lines, block.violation.toJson());
+        if (result == null) {
+            return String.join("\n", block.lines);
         }
+        fixCache.store(block.cacheKey, result);
+        return result;
     }
 
-    private static String resolveWithCerebras(List<String> blockLines, JSONObject errorJson) {
+    /**
+     * Sends all blocks of a file in one request and asks for a JSON object with one fixed block per id.
+     * @return fixed text per block index; blocks missing from or invalid in the response are left out
+     */
+    private Map<Integer, String> resolveFileWithCerebras(String filePath, List<BlockRequest> blocks) {
+        Map<Integer, String> fixes = new HashMap<>();
+        try {
+            JSONArray input = new JSONArray();
+            for (BlockRequest block : blocks) {
+                input.put(new JSONObject()
+                        .put("id", block.index)
+                        .put("code", String.join("\n", block.lines))
+                        .put("warning", block.violation.toJson()));
+            }
+
+            String prompt = "You are a Java coding assistant.\n"
+                    + "Fix each code block of " + Path.of(filePath).getFileName()
+                    + " according to its Checkstyle warning.\n\n"
+                    + "### Blocks:\n"
+                    + input.toString(2) + "\n\n"
+                    + "### Requirements:\n"
+                    + "- Only modify what is necessary to satisfy Checkstyle.\n"
+                    + "- Preserve original functionality.\n"
+                    + "- Maintain indentation and Javadoc formatting.\n"
+                    + "- Respond with a JSON object only, no explanations, in the form "
+                    + "{\"blocks\": [{\"id\": <block id>, \"code\": \"<corrected code block>\"}]}, "
+                    + "with exactly one entry per block id.";
+
+            JSONArray output = new JSONObject(stripFences(llmClient.completeJson(prompt, MAX_TOKENS)))
+                    .getJSONArray("blocks");
+            Set<Integer> expected = new HashSet<>();
+            blocks.forEach(block -> expected.add(block.index));
+            for (int i = 0; i < output.length(); i++) {
+                JSONObject entry = output.optJSONObject(i);
+                if (entry == null) continue;
+                int id = entry.optInt("id", -1);
+                String code = entry.optString("code", "");
+                if (!expected.contains(id) || fixes.containsKey(id) || code.isBlank()) continue;
+                fixes.put(id, stripFences(code));
+            }
+            if (fixes.size() < blocks.size()) {
+                log.warn("Batched LLM response covered {} of {} blocks, resolving the rest one by one",
+                        fixes.size(), blocks.size());
+            }
+        } catch (Exception e) {
+            log.warn("Batched LLM request failed, resolving blocks one by one: {}", e.getMessage());
+        }
+        return fixes;
+    }
+
+    /**
+     * Asks for a unified diff against the numbered block and applies it in memory.
+     * A diff that does not apply is retried once with the reason; after that the block is left as it was.
+     * @return the patched block, or null when no applicable diff came back
+     */
+    private String resolveWithDiff(List<String> blockLines, JSONObject errorJson) {
+        StringBuilder numbered = new StringBuilder();
+        for (int i = 0; i < blockLines.size(); i++) {
+            numbered.append(i + 1).append(": ").append(blockLines.get(i)).append("\n");
+        }
+        String prompt = "You are a Java coding assistant.\n"
+                + "Fix the numbered code block below according to the Checkstyle warning.\n\n"
+                + "### Code Block:\n"
+                + numbered + "\n"
+                + "### Checkstyle Warning:\n"
+                + "- Severity: " + errorJson.optString("severity", "warning") + "\n"
+                + "- Source: " + errorJson.optString("source", "Unknown source") + "\n"
+                + "- Message: " + errorJson.optString("message", "No description") + "\n\n"
+                + "### Requirements:\n"
+                + "- Only modify what is necessary to satisfy Checkstyle.\n"
+                + "- Preserve original functionality.\n"
+                + "- Maintain indentation and Javadoc formatting.\n"
+                + "- Respond with a minimal unified diff against the block only, no explanations. "
+                + "Hunk headers use the block's line numbers (e.g. @@ -3,2 +3,2 @@); diff lines must "
+                + "not include the \"N: \" prefixes and should keep one unchanged line of context.";
+
+        String attemptPrompt = prompt;
+        for (int attempt = 1; attempt <= DIFF_ATTEMPTS; attempt++) {
+            String diff;
+            try {
+                diff = streaming
+                        ? llmClient.stream(attemptPrompt, DIFF_MAX_TOKENS, FileEditor::hasClosingFence, blockTimeBudget)
+                        : llmClient.complete(attemptPrompt, DIFF_MAX_TOKENS);
+            } catch (Exception e) {
+                log.warn("LLM fix failed, keeping original block: {}", e.getMessage());
+                return null;
+            }
+            try {
+                return String.join("\n", UnifiedDiff.apply(blockLines, stripFences(diff)));
+            } catch (IllegalArgumentException e) {
+                log.debug("LLM diff rejected (attempt {}): {}", attempt, e.getMessage());
+                attemptPrompt = prompt + "\n\nYour previous diff did not apply (" + e.getMessage()
+                        + "). Context and removed lines must match the block exactly.";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Output tokens a block fix may use: roughly twice the tokens of the block plus room for
+     * additions, so a model that runs on is cut off long before {@link #MAX_TOKENS}.
+     */
+    static int blockTokenBudget(List<String> blockLines) {
+        int chars = 0;
+        for (String line : blockLines) {
+            chars += line.length() + 1;
+        }
+        return Math.min(MAX_TOKENS, 2 * (chars / 3) + 512);
+    }
+
+    /**
+     * True once a response that opened with a Markdown fence has closed it.
+     */
+    static boolean hasClosingFence(String text) {
+        String trimmed = text.stripLeading();
+        if (!trimmed.startsWith("```")) return false;
+        int firstLineEnd = trimmed.indexOf('\n');
+        return firstLineEnd >= 0 && trimmed.indexOf("```", firstLineEnd) >= 0;
+    }
+
+    private static int lineCount(String text) {
+        return (int) text.strip().lines().count();
+    }
+
+    /**
+     * Removes a Markdown code fence wrapped around the whole text, if there is one.
+     */
+    static String stripFences(String text) {
+        String trimmed = text.strip();
+        if (!trimmed.startsWith("```")) return text;
+        int firstLineEnd = trimmed.indexOf('\n');
+        int closing = trimmed.lastIndexOf("```");
+        if (firstLineEnd < 0 || closing <= firstLineEnd) return text;
+        return trimmed.substring(firstLineEnd + 1, closing).stripTrailing();
+    }
+
+    /**
+     * @return the fixed block, or null when the LLM call failed
+     */
+    private String resolveWithCerebras(List<String> blockLines, JSONObject errorJson) {
         try {
             String message = errorJson.optString("message", "No description");
             String severity = errorJson.optString("severity", "warning");
@@ -103,45 +367,46 @@ public class FileEditor {
                     + "- Maintain indentation and Javadoc formatting.\n"
                     + "- Return only the corrected code block, no explanations.";
 
-            // Prepare request body
-            JSONObject requestBody = new JSONObject();
-            requestBody.put("model", MODEL);
-            requestBody.put("max_tokens", 20000);
-            requestBody.put("temperature", 0.7);
-            requestBody.put("top_p", 0.8);
-            requestBody.put("stream", false);
-
-            JSONArray messages = new JSONArray();
-            JSONObject systemMsg = new JSONObject();
-            systemMsg.put("role", "system");
-            systemMsg.put("content", prompt);
-            messages.put(systemMsg);
-
-            requestBody.put("messages", messages);
-
-            // Build HTTP request
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(CEREBRAS_ENDPOINT))
-                    .header("Content-Type", "application/json")
-                    .header("Authorization", "Bearer " + CEREBRAS_API_KEY)
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody.toString()))
-                    .build();
-
-            // Send request
-            HttpClient client = HttpClient.newHttpClient();
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            JSONObject jsonResponse = new JSONObject(response.body());
-            // Extract corrected code from response
-            String result = jsonResponse.getJSONArray("choices")
-                    .getJSONObject(0)
-                    .getJSONObject("message")
-                    .getString("content");
-
-            return result;
+            // Send through the shared client
+            String result;
+            if (streaming) {
+                int lineLimit = blockLines.size() + MAX_EXTRA_LINES;
+                String streamed = llmClient.stream(prompt, blockTokenBudget(blockLines),
+                        text -> hasClosingFence(text) || lineCount(text) > lineLimit, blockTimeBudget);
+                if (!hasClosingFence(streamed) && lineCount(streamed) > lineLimit) {
+                    log.warn("LLM response ran past the block, keeping original block");
+                    return null;
+                }
+                result = stripFences(streamed);
+            } else {
+                result = stripFences(llmClient.complete(prompt, MAX_TOKENS));
+            }
+
+            return result.isBlank() ? null : result;
         } catch (Exception e) {
-            System.out.println("[Cerebras] Failed, returning original block: " + e.getMessage());
-            return String.join("\n", blockLines);
+            log.warn("LLM fix failed, keeping original block: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * How blocks that need the LLM are sent: {@code block} is one request per block,
+     * {@code file} is one request per file with per-block fallback, and {@code diff} is one
+     * request per block answered with a unified diff instead of the whole block.
+     */
+    enum Mode { BLOCK, FILE, DIFF }
+
+    private static final class BlockRequest {
+        private final int index;
+        private final List<String> lines;
+        private final Violation violation;
+        private final String cacheKey;
+
+        private BlockRequest(int index, List<String> lines, Violation violation, String cacheKey) {
+            this.index = index;
+            this.lines = lines;
+            this.violation = violation;
+            this.cacheKey = cacheKey;
         }
     }
 }
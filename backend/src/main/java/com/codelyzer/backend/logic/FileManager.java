@@ -1,32 +1,35 @@
 package com.codelyzer.backend.logic;
 
-import org.json.JSONArray;
+import com.codelyzer.backend.entity.AnalysisReport;
+import com.codelyzer.backend.entity.Violation;
 import org.json.JSONObject;
 
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Handles individual file details parsed from a Checkstyle report.
  * Stores file path, up to 5 spaced, non-overlapping error line blocks, skip flag for large files,
- * and full JSON object for each error block.
+ * and the violation behind each error block.
  */
 public class FileManager {
 
     private final String filePath;
     private final int[][] errorLines = new int[5][2];   // up to 5 error blocks (start, end)
-    private final JSONObject[] errorJson = new JSONObject[5]; // full JSON for each block
+    private final Violation[] violations = new Violation[5]; // violation for each block
     private boolean skip = false;
     private int errorCount = 0;
 
-    public FileManager(JSONObject fileObj) {
-        this.filePath = fileObj.getString("name");
+    public FileManager(String filePath, List<Violation> fileViolations) {
+        this.filePath = filePath;
 
         // Skip large or unreadable files
-        try {
-            long totalLines = Files.lines(Paths.get(filePath)).count();
+        try (Stream<String> fileLines = Files.lines(Paths.get(filePath))) {
+            long totalLines = fileLines.count();
             if (totalLines > 300) {
                 this.skip = true;
                 return;
@@ -36,16 +39,12 @@ public class FileManager {
             return;
         }
 
-        // Parse error array
-        if (fileObj.has("error")) {
-            JSONArray errors = fileObj.getJSONArray("error");
-            for (int i = 0; i < errors.length() && errorCount < 5; i++) {
-                JSONObject err = errors.getJSONObject(i);
-                if (!err.has("line")) continue;
-                int line = err.getInt("line");
-                if (addError(line)) {
-                    errorJson[errorCount - 1] = err; // store JSON for last added block
-                }
+        // Pick error blocks
+        for (int i = 0; i < fileViolations.size() && errorCount < 5; i++) {
+            Violation violation = fileViolations.get(i);
+            if (violation.getLine() < 0) continue;
+            if (addError(violation.getLine())) {
+                violations[errorCount - 1] = violation; // store violation for last added block
             }
         }
     }
@@ -88,7 +87,12 @@ public class FileManager {
     }
 
     public JSONObject getErrorJson(int index) {
-        if (index >= 0 && index < errorCount) return errorJson[index];
+        Violation violation = getViolation(index);
+        return violation != null ? violation.toJson() : null;
+    }
+
+    public Violation getViolation(int index) {
+        if (index >= 0 && index < errorCount) return violations[index];
         return null;
     }
 
@@ -101,21 +105,20 @@ public class FileManager {
     }
 
     /**
-     * Static method to parse an analysis file and return list of FileManager objects.
-     * @param analysisPath path to Checkstyle JSON report
+     * Static method to turn an analysis report into a list of FileManager objects.
+     * Only the first 15 files that can be fixed are kept: files that are skipped, or have no
+     * violation with a line to fix, are left out so callers only count fixable files.
+     * @param report violations grouped by file
      * @return list of FileManager
-     * @throws Exception
      */
-    public static List<FileManager> analyze(String analysisPath) throws Exception {
-        String jsonText = Files.readString(Paths.get(analysisPath));
-        JSONObject root = new JSONObject(jsonText);
-        JSONArray files = root.getJSONObject("checkstyle").getJSONArray("file");
-
+    public static List<FileManager> analyze(AnalysisReport report) {
         List<FileManager> resultList = new ArrayList<>();
-        int min = Math.min(15, files.length());
-        for (int i = 0; i < min; i++) {
-            FileManager fm = new FileManager(files.getJSONObject(i));
-            resultList.add(fm);
+        for (Map.Entry<String, List<Violation>> entry : report.getViolationsByFile().entrySet()) {
+            if (resultList.size() >= 15) break;
+            if (entry.getValue().isEmpty()) continue;
+            FileManager fileManager = new FileManager(entry.getKey(), entry.getValue());
+            if (fileManager.shouldSkip() || fileManager.getErrorCount() == 0) continue;
+            resultList.add(fileManager);
         }
         return resultList;
     }
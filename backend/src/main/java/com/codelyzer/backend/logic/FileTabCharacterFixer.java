@@ -0,0 +1,36 @@
+package com.codelyzer.backend.logic;
+
+import com.codelyzer.backend.entity.Violation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Replaces tab characters on the violation line: each leading tab becomes one indentation
+ * level of two spaces, any other tab a single space.
+ */
+@Component
+public class FileTabCharacterFixer implements BlockFixer {
+    private static final String INDENT = "  ";
+
+    @Override
+    public Set<String> checks() {
+        return Set.of("FileTabCharacter");
+    }
+
+    @Override
+    public List<String> fix(List<String> blockLines, int lineInBlock, Violation violation) {
+        String line = blockLines.get(lineInBlock);
+        if (line.indexOf('\t') < 0) return null;
+
+        StringBuilder fixed = new StringBuilder();
+        int i = 0;
+        for (; i < line.length() && (line.charAt(i) == '\t' || line.charAt(i) == ' '); i++) {
+            fixed.append(line.charAt(i) == '\t' ? INDENT : " ");
+        }
+        fixed.append(line.substring(i).replace('\t', ' '));
+        blockLines.set(lineInBlock, fixed.toString());
+        return blockLines;
+    }
+}
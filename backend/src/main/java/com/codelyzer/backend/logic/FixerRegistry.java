@@ -0,0 +1,59 @@
+package com.codelyzer.backend.logic;
+
+import com.codelyzer.backend.entity.Violation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Looks up the {@link BlockFixer} for a violation by its Checkstyle source.
+ * {@link FileEditor} asks the registry first and only sends blocks it cannot fix to the LLM.
+ */
+@Component
+public class FixerRegistry {
+    private static final Logger log = LoggerFactory.getLogger(FixerRegistry.class);
+
+    private final Map<String, BlockFixer> fixers = new HashMap<>();
+
+    public FixerRegistry(List<BlockFixer> fixers) {
+        for (BlockFixer fixer : fixers) {
+            for (String check : fixer.checks()) {
+                BlockFixer previous = this.fixers.put(check, fixer);
+                if (previous != null) {
+                    throw new IllegalStateException("Two fixers registered for " + check);
+                }
+            }
+        }
+    }
+
+    /**
+     * Simple check name of a Checkstyle source,
+     * e.g. {@code com.puppycrawl.tools.checkstyle.checks.whitespace.FileTabCharacterCheck} → {@code FileTabCharacter}.
+     */
+    public static String checkName(String source) {
+        if (source == null) return "";
+        String name = source.substring(source.lastIndexOf('.') + 1);
+        return name.endsWith("Check") ? name.substring(0, name.length() - "Check".length()) : name;
+    }
+
+    /**
+     * @param lineInBlock index of the violation line inside the block
+     * @return the fixed block joined with newlines, or null when no fixer applies
+     */
+    public String fix(List<String> blockLines, int lineInBlock, Violation violation) {
+        if (violation == null || lineInBlock < 0 || lineInBlock >= blockLines.size()) return null;
+        BlockFixer fixer = fixers.get(checkName(violation.getSource()));
+        if (fixer == null) return null;
+
+        List<String> fixed = fixer.fix(new ArrayList<>(blockLines), lineInBlock, violation);
+        if (fixed == null) return null;
+        log.debug("Fixed {} at {}:{} without the LLM", checkName(violation.getSource()),
+                violation.getFilePath(), violation.getLine());
+        return String.join("\n", fixed);
+    }
+}
@@ -0,0 +1,42 @@
+package com.codelyzer.backend.logic;
+
+import com.codelyzer.backend.entity.Violation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Re-indents the violation line to the level Checkstyle expects, e.g. for
+ * "'method def' has incorrect indentation level 4, expected level should be 2.".
+ * When several levels are allowed the first one is used.
+ */
+@Component
+public class IndentationFixer implements BlockFixer {
+    private static final Pattern LEVELS =
+            Pattern.compile("indentation level (\\d+), expected level should be (?:one of the following: )?(\\d+)");
+
+    @Override
+    public Set<String> checks() {
+        return Set.of("Indentation");
+    }
+
+    @Override
+    public List<String> fix(List<String> blockLines, int lineInBlock, Violation violation) {
+        Matcher matcher = LEVELS.matcher(violation.getMessage());
+        if (!matcher.find()) return null;
+        int actual = Integer.parseInt(matcher.group(1));
+        int expected = Integer.parseInt(matcher.group(2));
+
+        String line = blockLines.get(lineInBlock);
+        String content = line.stripLeading();
+        String indent = line.substring(0, line.length() - content.length());
+        // only touch lines whose indentation is exactly what Checkstyle measured
+        if (indent.indexOf('\t') >= 0 || indent.length() != actual || content.isEmpty()) return null;
+
+        blockLines.set(lineInBlock, " ".repeat(expected) + content);
+        return blockLines;
+    }
+}
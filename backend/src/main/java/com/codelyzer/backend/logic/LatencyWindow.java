@@ -0,0 +1,38 @@
+package com.codelyzer.backend.logic;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of the most recent calls, for percentile estimates.
+ */
+public class LatencyWindow {
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    public LatencyWindow(int size) {
+        this.samples = new long[Math.max(1, size)];
+    }
+
+    public synchronized void add(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    /**
+     * @param percentile between 0 and 1
+     * @return the latency in nanoseconds, or -1 while the window is empty
+     */
+    public synchronized long percentile(double percentile) {
+        if (count == 0) return -1;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * count) - 1;
+        return sorted[Math.min(count - 1, Math.max(0, index))];
+    }
+}
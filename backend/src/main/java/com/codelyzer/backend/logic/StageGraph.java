@@ -0,0 +1,85 @@
+package com.codelyzer.backend.logic;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Dependency graph of pipeline stages.
+ * A stage starts as soon as every stage it depends on has succeeded, so independent stages
+ * run concurrently; when a dependency fails or is skipped, the stage is skipped.
+ * Stages must be declared after their dependencies, which keeps the graph acyclic.
+ */
+public class StageGraph {
+    private static final Logger log = LoggerFactory.getLogger(StageGraph.class);
+
+    public enum Outcome { SUCCEEDED, FAILED, SKIPPED }
+
+    /**
+     * Work of one stage.
+     */
+    @FunctionalInterface
+    public interface Stage {
+        /**
+         * @return true on success
+         */
+        boolean run() throws Exception;
+    }
+
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    private final Map<String, List<String>> dependencies = new LinkedHashMap<>();
+
+    public StageGraph stage(String name, Stage stage, String... dependsOn) {
+        if (stages.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate stage: " + name);
+        }
+        for (String dependency : dependsOn) {
+            if (!stages.containsKey(dependency)) {
+                throw new IllegalArgumentException("Stage " + name + " depends on undeclared stage " + dependency);
+            }
+        }
+        stages.put(name, stage);
+        dependencies.put(name, List.of(dependsOn));
+        return this;
+    }
+
+    /**
+     * Runs every stage on the executor and waits for all of them.
+     * @return outcome per stage, in declaration order
+     */
+    public Map<String, Outcome> run(Executor executor) {
+        Map<String, CompletableFuture<Outcome>> futures = new LinkedHashMap<>();
+        stages.forEach((name, stage) -> {
+            List<CompletableFuture<Outcome>> upstream = new ArrayList<>();
+            dependencies.get(name).forEach(dependency -> upstream.add(futures.get(dependency)));
+
+            CompletableFuture<Outcome> future = CompletableFuture
+                    .allOf(upstream.toArray(new CompletableFuture[0]))
+                    .thenApplyAsync(ignored -> {
+                        for (CompletableFuture<Outcome> dependency : upstream) {
+                            if (dependency.join() != Outcome.SUCCEEDED) {
+                                log.info("Skipping stage {}: a dependency did not succeed", name);
+                                return Outcome.SKIPPED;
+                            }
+                        }
+                        try {
+                            return stage.run() ? Outcome.SUCCEEDED : Outcome.FAILED;
+                        } catch (Exception e) {
+                            log.error("Stage {} failed: {}", name, e.getMessage(), e);
+                            return Outcome.FAILED;
+                        }
+                    }, executor);
+            futures.put(name, future);
+        });
+
+        Map<String, Outcome> outcomes = new LinkedHashMap<>();
+        futures.forEach((name, future) -> outcomes.put(name, future.join()));
+        return outcomes;
+    }
+}
@@ -0,0 +1,49 @@
+package com.codelyzer.backend.logic;
+
+/**
+ * Token bucket that hands out reservations instead of blocking, so callers can wait
+ * asynchronously. The refill rate can be retuned at runtime and the bucket can be paused,
+ * e.g. when the server asks to back off.
+ */
+public class TokenBucket {
+    private final double capacity;
+    private double tokensPerNano;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+    private long pausedUntil = lastRefill;
+
+    public TokenBucket(double capacity, double tokensPerSecond) {
+        this.capacity = Math.max(1, capacity);
+        this.tokens = this.capacity;
+        setRate(tokensPerSecond);
+    }
+
+    /**
+     * Takes one token, going into debt if none is left.
+     * @return nanoseconds to wait before using the token
+     */
+    public synchronized long reserve() {
+        long now = System.nanoTime();
+        refill(now);
+        tokens -= 1;
+        long wait = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+        return Math.max(wait, pausedUntil - now);
+    }
+
+    public synchronized void setRate(double tokensPerSecond) {
+        refill(System.nanoTime());
+        this.tokensPerNano = Math.max(tokensPerSecond, 0.001) / 1_000_000_000d;
+    }
+
+    /**
+     * Holds back every reservation for at least the given time.
+     */
+    public synchronized void pauseFor(long nanos) {
+        pausedUntil = Math.max(pausedUntil, System.nanoTime() + nanos);
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,112 @@
+package com.codelyzer.backend.logic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies a unified diff to lines held in memory.
+ * Hunks are placed at their stated position when the old lines match there, otherwise at the first
+ * later position where they do, since models often miscount line numbers. Trailing whitespace is
+ * ignored when matching. A diff that does not apply cleanly is rejected as a whole.
+ */
+public final class UnifiedDiff {
+    private static final Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+\\d+(?:,\\d+)? @@");
+
+    private UnifiedDiff() {
+    }
+
+    /**
+     * @return the patched lines
+     * @throws IllegalArgumentException if the text has no hunks or a hunk does not match the original
+     */
+    public static List<String> apply(List<String> original, String diff) {
+        List<Hunk> hunks = parse(diff);
+        if (hunks.isEmpty()) {
+            throw new IllegalArgumentException("no hunks found");
+        }
+
+        List<String> patched = new ArrayList<>();
+        int cursor = 0;
+        for (Hunk hunk : hunks) {
+            int at = locate(original, hunk, cursor);
+            if (at < 0) {
+                throw new IllegalArgumentException("hunk at line " + hunk.oldStart + " does not match the block");
+            }
+            patched.addAll(original.subList(cursor, at));
+            patched.addAll(hunk.newLines);
+            cursor = at + hunk.oldLines.size();
+        }
+        patched.addAll(original.subList(cursor, original.size()));
+        return patched;
+    }
+
+    private static List<Hunk> parse(String diff) {
+        List<Hunk> hunks = new ArrayList<>();
+        Hunk current = null;
+        for (String line : diff.split("\n", -1)) {
+            line = line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+            Matcher header = HUNK_HEADER.matcher(line);
+            if (header.find()) {
+                current = new Hunk(Integer.parseInt(header.group(1)));
+                hunks.add(current);
+            } else if (current == null || line.startsWith("```") || line.startsWith("\\")) {
+                // file headers, fences and "\ No newline at end of file"
+            } else if (line.startsWith("+")) {
+                current.newLines.add(line.substring(1));
+            } else if (line.startsWith("-")) {
+                current.oldLines.add(line.substring(1));
+            } else if (line.startsWith(" ")) {
+                current.oldLines.add(line.substring(1));
+                current.newLines.add(line.substring(1));
+            } else if (line.isEmpty()) {
+                // blank context line whose leading space was dropped
+                current.oldLines.add("");
+                current.newLines.add("");
+            } else {
+                throw new IllegalArgumentException("unexpected diff line: " + line);
+            }
+        }
+        // a trailing newline of the response is not part of the last hunk
+        for (Hunk hunk : hunks) {
+            hunk.trimTrailingBlankContext();
+        }
+        return hunks;
+    }
+
+    private static int locate(List<String> original, Hunk hunk, int from) {
+        int stated = Math.max(from, hunk.oldStart - 1);
+        if (matches(original, hunk.oldLines, stated)) return stated;
+        for (int at = from; at + hunk.oldLines.size() <= original.size(); at++) {
+            if (matches(original, hunk.oldLines, at)) return at;
+        }
+        return -1;
+    }
+
+    private static boolean matches(List<String> original, List<String> expected, int at) {
+        if (at + expected.size() > original.size()) return false;
+        for (int i = 0; i < expected.size(); i++) {
+            if (!original.get(at + i).stripTrailing().equals(expected.get(i).stripTrailing())) return false;
+        }
+        return true;
+    }
+
+    private static final class Hunk {
+        private final int oldStart;
+        private final List<String> oldLines = new ArrayList<>();
+        private final List<String> newLines = new ArrayList<>();
+
+        private Hunk(int oldStart) {
+            this.oldStart = oldStart;
+        }
+
+        private void trimTrailingBlankContext() {
+            while (!oldLines.isEmpty() && !newLines.isEmpty()
+                    && oldLines.get(oldLines.size() - 1).isEmpty() && newLines.get(newLines.size() - 1).isEmpty()) {
+                oldLines.remove(oldLines.size() - 1);
+                newLines.remove(newLines.size() - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.codelyzer.backend.logic;
+
+import com.codelyzer.backend.entity.Violation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Adds or removes a single space around the token Checkstyle points at, using the violation column.
+ * Lines with tabs are left alone, since Checkstyle columns count a tab as several characters.
+ */
+@Component
+public class WhitespaceFixer implements BlockFixer {
+
+    @Override
+    public Set<String> checks() {
+        return Set.of("WhitespaceAround", "WhitespaceAfter", "NoWhitespaceBefore");
+    }
+
+    @Override
+    public List<String> fix(List<String> blockLines, int lineInBlock, Violation violation) {
+        String token = BlockFixer.quoted(violation.getMessage());
+        String line = blockLines.get(lineInBlock);
+        int at = violation.getColumn() - 1;
+        if (token == null || token.isEmpty() || at < 0 || line.indexOf('\t') >= 0
+                || !line.startsWith(token, at)) {
+            return null;
+        }
+
+        String message = violation.getMessage();
+        String fixed;
+        if (message.contains("is not followed by whitespace")) {
+            int after = at + token.length();
+            fixed = line.substring(0, after) + " " + line.substring(after);
+        } else if (message.contains("is not preceded with whitespace")) {
+            fixed = line.substring(0, at) + " " + line.substring(at);
+        } else if (message.contains("is preceded with whitespace")) {
+            String before = line.substring(0, at);
+            String trimmed = before.stripTrailing();
+            // a token at the start of a wrapped line keeps its indentation
+            if (trimmed.isEmpty() || trimmed.length() == before.length()) return null;
+            fixed = trimmed + line.substring(at);
+        } else {
+            return null;
+        }
+        blockLines.set(lineInBlock, fixed);
+        return blockLines;
+    }
+}
@@ -0,0 +1,257 @@
+package com.codelyzer.backend.service;
+
+import com.codelyzer.backend.entity.AnalysisReport;
+import com.codelyzer.backend.entity.Violation;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs Checkstyle inside the backend JVM.
+ * The configuration is parsed once and configured {@link Checker} instances are pooled,
+ * so each job skips JVM startup, config parsing and module instantiation.
+ * Large repositories are split into shards that are audited in parallel on a work-stealing pool,
+ * and files whose content was already audited with the same configuration come from
+ * {@link ViolationCacheService} instead.
+ */
+@Service
+public class CheckstyleService {
+    private static final Logger log = LoggerFactory.getLogger(CheckstyleService.class);
+    final String basePath = new File("").getAbsolutePath();
+
+    private final String configPath;
+    private final BlockingQueue<Checker> idleCheckers = new LinkedBlockingQueue<>();
+    private final int shardSize;
+    private final ForkJoinPool auditPool;
+    private final ViolationCacheService violationCache;
+    private volatile Configuration configuration;
+    private volatile String configHash;
+
+    public CheckstyleService(@Value("${codelyzer.analysis.config:backend/config/google_checks.xml}")
+                             String configPath,
+                             @Value("${codelyzer.analysis.shard-size:200}") int shardSize,
+                             @Value("${codelyzer.analysis.parallelism:0}") int parallelism,
+                             ViolationCacheService violationCache) {
+        this.configPath = configPath;
+        this.violationCache = violationCache;
+        this.shardSize = Math.max(1, shardSize);
+        this.auditPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Audits every Java file under the repository directory.
+     * Only files whose blob id is not in the violation cache are actually audited.
+     */
+    public AnalysisReport audit(Path repoDir) throws CheckstyleException, IOException {
+        List<File> files = listJavaFiles(repoDir);
+        if (!violationCache.isEnabled()) {
+            return auditSharded(files);
+        }
+
+        loadConfiguration();
+        String hash = configHash;
+        AnalysisReport report = new AnalysisReport();
+        List<File> changed = new ArrayList<>();
+        Map<String, String> blobIds = new HashMap<>();
+        for (File file : files) {
+            String blobId = ViolationCacheService.blobId(file);
+            List<Violation> cached = violationCache.lookup(hash, blobId, file);
+            if (cached != null) {
+                report.addViolations(file.getAbsolutePath(), cached);
+            } else {
+                changed.add(file);
+                blobIds.put(file.getAbsolutePath(), blobId);
+            }
+        }
+        log.info("Violation cache: {} of {} files unchanged, auditing {}",
+                files.size() - changed.size(), files.size(), changed.size());
+
+        AnalysisReport fresh = auditSharded(changed);
+        Map<String, List<Violation>> freshViolations = fresh.getViolationsByFile();
+        for (File file : changed) {
+            String path = file.getAbsolutePath();
+            violationCache.store(hash, blobIds.get(path), file, freshViolations.getOrDefault(path, List.of()));
+        }
+        report.merge(fresh);
+        return report;
+    }
+
+    /**
+     * Splits the files into shards, audits them in parallel and merges the shard reports
+     * in shard order, so the result does not depend on scheduling.
+     */
+    public AnalysisReport auditSharded(List<File> files) throws CheckstyleException {
+        if (files.size() <= shardSize) {
+            return audit(files);
+        }
+
+        List<ForkJoinTask<AnalysisReport>> shards = new ArrayList<>();
+        for (int from = 0; from < files.size(); from += shardSize) {
+            List<File> shard = files.subList(from, Math.min(from + shardSize, files.size()));
+            shards.add(auditPool.submit(() -> audit(shard)));
+        }
+        log.info("Auditing {} files in {} shards", files.size(), shards.size());
+
+        AnalysisReport report = new AnalysisReport();
+        try {
+            for (ForkJoinTask<AnalysisReport> shard : shards) {
+                report.merge(shard.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            shards.forEach(shard -> shard.cancel(true));
+            throw new CheckstyleException("Interrupted while auditing shards", e);
+        } catch (ExecutionException e) {
+            shards.forEach(shard -> shard.cancel(true));
+            throw new CheckstyleException("Shard audit failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        return report;
+    }
+
+    /**
+     * Audits the given files with a pooled checker and collects the events in memory.
+     */
+    public AnalysisReport audit(List<File> files) throws CheckstyleException {
+        AnalysisReport report = new AnalysisReport();
+        if (files.isEmpty()) {
+            return report;
+        }
+        Checker checker = borrowChecker();
+        ViolationCollector collector = new ViolationCollector(report);
+        checker.addListener(collector);
+        try {
+            checker.process(files);
+        } finally {
+            checker.removeListener(collector);
+            idleCheckers.offer(checker);
+        }
+        return report;
+    }
+
+    public List<File> listJavaFiles(Path repoDir) throws IOException {
+        try (Stream<Path> paths = Files.walk(repoDir)) {
+            return paths
+                    .filter(path -> !path.toString().contains(File.separator + ".git" + File.separator))
+                    .filter(path -> path.toString().endsWith(".java"))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Checker borrowChecker() throws CheckstyleException {
+        Checker checker = idleCheckers.poll();
+        if (checker != null) {
+            return checker;
+        }
+        checker = new Checker();
+        checker.setModuleClassLoader(Checker.class.getClassLoader());
+        checker.configure(loadConfiguration());
+        // report unparsable files as violations instead of aborting the whole audit
+        checker.setHaltOnException(false);
+        log.info("Created Checkstyle checker from {}", configPath);
+        return checker;
+    }
+
+    private Configuration loadConfiguration() throws CheckstyleException {
+        Configuration loaded = configuration;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = configuration;
+                if (loaded == null) {
+                    String path = new File(basePath, configPath).getAbsolutePath();
+                    loaded = ConfigurationLoader.loadConfiguration(path,
+                            new PropertiesExpander(System.getProperties()));
+                    try {
+                        configHash = ViolationCacheService.configHash(Files.readAllBytes(Path.of(path)),
+                                Checker.class.getPackage().getImplementationVersion());
+                    } catch (IOException e) {
+                        throw new CheckstyleException("Cannot read configuration " + path, e);
+                    }
+                    configuration = loaded;
+                    log.info("Loaded Checkstyle configuration {}", path);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        List<Checker> checkers = new ArrayList<>();
+        idleCheckers.drainTo(checkers);
+        checkers.forEach(Checker::destroy);
+        auditPool.shutdownNow();
+    }
+
+    /**
+     * Turns audit events into {@link Violation}s, mirroring what the XML logger writes.
+     */
+    private static final class ViolationCollector implements AuditListener {
+        private final AnalysisReport report;
+
+        private ViolationCollector(AnalysisReport report) {
+            this.report = report;
+        }
+
+        @Override
+        public void auditStarted(AuditEvent event) {
+        }
+
+        @Override
+        public void auditFinished(AuditEvent event) {
+        }
+
+        @Override
+        public void fileStarted(AuditEvent event) {
+            report.addFile(event.getFileName());
+        }
+
+        @Override
+        public void fileFinished(AuditEvent event) {
+        }
+
+        @Override
+        public void addError(AuditEvent event) {
+            if (event.getSeverityLevel() == SeverityLevel.IGNORE) {
+                return;
+            }
+            String source = event.getModuleId() != null ? event.getModuleId() : event.getSourceName();
+            int column = event.getColumn() > 0 ? event.getColumn() : -1;
+            report.addViolation(new Violation(event.getFileName(), event.getLine(), column,
+                    event.getSeverityLevel().getName(), event.getMessage(), source));
+        }
+
+        @Override
+        public void addException(AuditEvent event, Throwable throwable) {
+            log.warn("Checkstyle failed on {}: {}", event.getFileName(), throwable.getMessage());
+        }
+    }
+}
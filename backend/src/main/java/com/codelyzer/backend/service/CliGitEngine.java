@@ -0,0 +1,90 @@
+package com.codelyzer.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link GitEngine} that forks the git CLI.
+ * Each branch is built in its own worktree next to the clone, so several branches of the
+ * same repository can be prepared at the same time.
+ */
+@Component
+public class CliGitEngine implements GitEngine {
+    private static final Logger logger = LoggerFactory.getLogger(CliGitEngine.class);
+
+    @Override
+    public void configureRemote(String repoDir, String remoteUrl) throws IOException, InterruptedException {
+        GitService.runGit(repoDir, "remote", "set-url", "origin", remoteUrl);
+    }
+
+    @Override
+    public boolean commitFile(String repoDir, String relativePath, Path content, String baseBranch,
+                              String branchName, String message) throws IOException, InterruptedException {
+        Path worktree = Path.of(repoDir + ".worktrees", branchName);
+        boolean committed = false;
+        try {
+            // New branch from base, checked out in a private worktree
+            GitService.runGit(repoDir, "worktree", "add", "-b", branchName, worktree.toString(), baseBranch);
+            logger.info("Created branch {} in worktree {}", branchName, worktree);
+
+            // Copy file into the worktree and stage only that file
+            Files.copy(content, worktree.resolve(relativePath), StandardCopyOption.REPLACE_EXISTING);
+            GitService.runGit(worktree.toString(), "add", relativePath);
+            logger.debug("Staged file: {}", relativePath);
+
+            if (!hasChanges(worktree.toString())) {
+                logger.warn("No file changes detected, skipping branch {}", branchName);
+                return false;
+            }
+
+            GitService.runGit(worktree.toString(), "commit", "-m", message);
+            logger.info("Committed changes on {} with message: {}", branchName, message);
+            committed = true;
+            return true;
+        } finally {
+            removeWorktree(repoDir, worktree, branchName, !committed);
+        }
+    }
+
+    @Override
+    public void push(String repoDir, List<String> branches) throws IOException, InterruptedException {
+        List<String> args = new ArrayList<>(List.of("push", "origin"));
+        args.addAll(branches);
+        GitService.runGit(repoDir, args.toArray(new String[0]));
+        logger.info("Pushed branches: {}", branches);
+    }
+
+    private static void removeWorktree(String repoDir, Path worktree, String branchName, boolean deleteBranch) {
+        try {
+            if (Files.exists(worktree)) {
+                GitService.runGit(repoDir, "worktree", "remove", "--force", worktree.toString());
+            }
+            if (deleteBranch) {
+                GitService.runGit(repoDir, "branch", "-D", branchName);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to clean up worktree {}: {}", worktree, e.getMessage());
+        }
+    }
+
+    private static boolean hasChanges(String repoDir) throws IOException, InterruptedException {
+        Process proc = new ProcessBuilder("git", "-C", repoDir, "status", "--porcelain")
+                .redirectErrorStream(true).start();
+        String status = new String(proc.getInputStream().readAllBytes()).trim();
+        int exitCode = proc.waitFor();
+
+        if (exitCode != 0) {
+            logger.warn("Git status command returned non-zero exit code: {}", exitCode);
+        }
+
+        return !status.isEmpty();
+    }
+}
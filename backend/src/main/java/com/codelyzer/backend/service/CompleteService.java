@@ -1,102 +1,344 @@
 package com.codelyzer.backend.service;
 
+import com.codelyzer.backend.entity.AnalysisReport;
+import com.codelyzer.backend.entity.JobCheckpoint;
+import com.codelyzer.backend.entity.JobContext;
+import com.codelyzer.backend.entity.JobResponseDto;
+import com.codelyzer.backend.entity.JobResult;
+import com.codelyzer.backend.entity.RepoMetadata;
 import com.codelyzer.backend.entity.Stages;
+import com.codelyzer.backend.logic.StageGraph;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Sinks;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 @Service
 public class CompleteService {
+    private static final Logger log = LoggerFactory.getLogger(CompleteService.class);
+    private static final int COMMIT_HISTORY = 10;
 
     private final ScriptService scriptService;
 
     private final GithubService githubService;
 
-    private final Sinks.Many<Stages> sink = Sinks.many().multicast().onBackpressureBuffer();
+    private final ThreadPoolTaskExecutor jobExecutor;
+
+    private final ThreadPoolTaskExecutor stageExecutor;
+
+    private final StageStreamService stageStreamService;
+
+    private final JobResultCache jobResultCache;
 
-    public CompleteService(ScriptService scriptService, GithubService githubService) {
+    private final JobStore jobStore;
+
+    // owner/repo of every running job → its job id
+    private final Map<String, String> inFlight = new ConcurrentHashMap<>();
+
+    public CompleteService(ScriptService scriptService, GithubService githubService,
+                           @Qualifier("jobExecutor") ThreadPoolTaskExecutor jobExecutor,
+                           @Qualifier("stageExecutor") ThreadPoolTaskExecutor stageExecutor,
+                           StageStreamService stageStreamService, JobResultCache jobResultCache,
+                           JobStore jobStore) {
         this.scriptService = scriptService;
         this.githubService = githubService;
+        this.jobExecutor = jobExecutor;
+        this.stageExecutor = stageExecutor;
+        this.stageStreamService = stageStreamService;
+        this.jobResultCache = jobResultCache;
+        this.jobStore = jobStore;
     }
 
     public Flux<Stages> streamUpload() {
-        return sink.asFlux();
+        return stageStreamService.streamAll();
     }
 
-    public void startOperations(Stages stages, String mainRepoURL) {
-        scriptService.setMainRepoURL(mainRepoURL);
-        scriptService.setRepoNameFromUrl();
-        scriptService.setRepoOwner();
-        // initial
-        sink.tryEmitNext(stages);
-        // verify if repo exists
-        boolean response = scriptService.isRepoExists();
-        if (response) {
-            stages.setUploadSuccess();
-        } else {
-            stages.setUploadFailed();
-            sink.tryEmitNext(stages);
-            return;
+    public Optional<Flux<Stages>> streamJob(String jobId) {
+        return stageStreamService.stream(jobId);
+    }
+
+    /**
+     * Queues a pipeline run on the bounded job executor and returns its job id right away.
+     * Each run gets its own {@link JobContext}, so several repositories can be processed at once.
+     * Nothing remote is called here: a submission of a repository that is already running joins
+     * that job, and if the last job of the repository failed it is resumed from its checkpoint.
+     * Whether the head commit was processed recently is only known once the job has fetched the
+     * metadata; such a job then finishes right away with the cached result.
+     *
+     * @throws org.springframework.core.task.TaskRejectedException if the job queue is full
+     */
+    public JobResponseDto submit(String mainRepoURL) {
+        JobContext context = JobContext.fromRepoUrl(mainRepoURL);
+        String repository = JobResultCache.repository(context.getRepoOwner(), context.getRepoName());
+        Optional<JobCheckpoint> unfinished = jobStore.findUnfinished(context.getRepoOwner(), context.getRepoName());
+        String jobId = unfinished.map(JobCheckpoint::getJobId).orElse(context.getJobId());
+
+        String running = inFlight.putIfAbsent(repository, jobId);
+        if (running != null) {
+            log.info("{} is already being processed by job {}, joining it", repository, running);
+            return new JobResponseDto(running, JobResponseDto.JOINED);
+        }
+        if (unfinished.isPresent()) {
+            log.info("Resuming job {} for {} from its last checkpoint", jobId, repository);
+            launch(JobContext.resume(jobId, mainRepoURL), repository, unfinished.get());
+            return new JobResponseDto(jobId, JobResponseDto.RESUMED);
+        }
+        launch(context, repository, jobStore.start(context));
+        return new JobResponseDto(jobId, JobResponseDto.QUEUED);
+    }
+
+    /**
+     * Drops expired jobs, then resumes every job that was still running when the backend stopped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        purgeExpiredJobs();
+        for (JobCheckpoint checkpoint : jobStore.interrupted()) {
+            String repository = JobResultCache.repository(checkpoint.getRepoOwner(), checkpoint.getRepoName());
+            if (inFlight.putIfAbsent(repository, checkpoint.getJobId()) != null) {
+                continue;
+            }
+            log.info("Resuming job {} interrupted by the last shutdown", checkpoint.getJobId());
+            try {
+                launch(JobContext.resume(checkpoint.getJobId(), checkpoint.getMainRepoURL()), repository,
+                        checkpoint);
+            } catch (RuntimeException e) {
+                log.warn("Could not resume job {}: {}", checkpoint.getJobId(), e.getMessage());
+                jobStore.finish(checkpoint, JobCheckpoint.Status.FAILED);
+            }
+        }
+    }
+
+    /**
+     * Drops failed jobs past their retention together with the workspaces they left behind, and
+     * checkpoints of finished jobs past their retention. Failed workspaces are kept for retries,
+     * so this runs periodically and not only at startup. Expired jobs are never resumed by
+     * {@link #submit}, and one that is in flight anyway is left alone.
+     */
+    @Scheduled(fixedDelayString = "${codelyzer.jobs.store.sweep-interval-minutes:60}",
+            initialDelayString = "${codelyzer.jobs.store.sweep-interval-minutes:60}", timeUnit = TimeUnit.MINUTES)
+    public void purgeExpiredJobs() {
+        for (JobCheckpoint checkpoint : jobStore.expired()) {
+            if (inFlight.containsValue(checkpoint.getJobId())) continue;
+            log.info("Dropping job {}, failed more than the retention period ago", checkpoint.getJobId());
+            scriptService.cleanResources(JobContext.resume(checkpoint.getJobId(), checkpoint.getMainRepoURL()));
+            jobStore.delete(checkpoint.getJobId());
         }
-        sink.tryEmitNext(stages);
-        // create a fork
-        String forkRepoUrl = githubService.createFork(mainRepoURL);
-        if (!forkRepoUrl.isEmpty()) {
-            stages.setForkSuccess();
-            scriptService.setForkRepoURL(forkRepoUrl);
-        } else {
-            stages.setForkFailed();
-            sink.tryEmitNext(stages);
-            return;
+        jobStore.purgeFinished();
+    }
+
+    /**
+     * Queues the job on the job executor. {@code repository} must already be registered in flight.
+     */
+    private void launch(JobContext context, String repository, JobCheckpoint checkpoint) {
+        String jobId = context.getJobId();
+        Stages stages = new Stages(jobId);
+        checkpoint.setStatus(JobCheckpoint.Status.RUNNING);
+        jobStore.save(checkpoint);
+        stageStreamService.open(jobId);
+        try {
+            jobExecutor.execute(() -> {
+                try {
+                    JobResult result = startOperations(stages, context, checkpoint);
+                    if (result != null) {
+                        jobResultCache.put(result);
+                    }
+                } catch (Exception e) {
+                    log.error("Job {} failed unexpectedly: {}", jobId, e.getMessage(), e);
+                    jobStore.finish(checkpoint, JobCheckpoint.Status.FAILED);
+                } finally {
+                    inFlight.remove(repository, jobId);
+                    stageStreamService.complete(jobId, stages);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(repository, jobId);
+            jobStore.finish(checkpoint, JobCheckpoint.Status.FAILED);
+            stageStreamService.complete(jobId, stages);
+            throw e;
         }
-        sink.tryEmitNext(stages);
-        // cloning
-        response = scriptService.makeClone();
-        if (response) {
-            stages.setCloneSuccess();
-        } else {
-            stages.setCloneFailed();
-            sink.tryEmitNext(stages);
-            return;
+    }
+
+    /**
+     * Result of a job that finished successfully and is still cached.
+     */
+    public Optional<JobResult> findResult(String jobId) {
+        return jobResultCache.getByJob(jobId);
+    }
+
+    private void publish(Stages stages) {
+        stageStreamService.publish(stages.getJobId(), stages);
+    }
+
+    /**
+     * Runs the job as a graph of stages: the metadata query runs first, then fork, commits and LLM
+     * health check together, and each later stage starts once everything it needs has succeeded.
+     * If the head commit reported by the metadata has a cached result, that result is reused.
+     * Fork and LLM check wait for the metadata, so a cache hit or a missing repository spends no
+     * GitHub or LLM quota on them.
+     * A failed stage skips all stages that depend on it, leaving its flag unset.
+     * Fork, clone, analysis and pull requests are checkpointed; a stage whose output is already
+     * in the checkpoint reuses it. Of the analysis only the files selected for fixing are
+     * checkpointed, so the report of a resumed job lists just those. Cleanup only runs once everything succeeded, so a failed job
+     * keeps its workspace for the retry.
+     * @return the job's result, or null unless every stage up to the pull requests succeeded
+     */
+    public JobResult startOperations(Stages stages, JobContext initialContext, JobCheckpoint checkpoint) {
+        AtomicReference<JobContext> context = new AtomicReference<>(initialContext);
+        AtomicReference<AnalysisReport> report = new AtomicReference<>();
+        AtomicReference<AnalysisReport> selection = new AtomicReference<>();
+        AtomicReference<List<String>> pullRequests = new AtomicReference<>();
+        AtomicReference<JobResult> cachedResult = new AtomicReference<>();
+        // initial
+        publish(stages);
+
+        StageGraph graph = new StageGraph()
+                .stage("metadata", () -> {
+                    RepoMetadata metadata = githubService.fetchMetadata(initialContext.getRepoOwner(),
+                            initialContext.getRepoName(), COMMIT_HISTORY);
+                    boolean exists = metadata != null && metadata.exists();
+                    Optional<JobResult> cached = exists && metadata.getHeadSha() != null
+                            ? jobResultCache.get(JobResultCache.key(initialContext.getRepoOwner(),
+                                    initialContext.getRepoName(), metadata.getHeadSha()))
+                            : Optional.empty();
+                    if (cached.isPresent()) {
+                        // unchanged since a recent run: skip everything else, the flags are copied below
+                        cachedResult.set(cached.get());
+                        return false;
+                    }
+                    if (exists) {
+                        context.updateAndGet(c -> c.withMetadata(metadata));
+                        // outputs of an older head commit are dropped here, before the clone stage reads them
+                        if (checkpoint.startAt(metadata.getHeadSha())) {
+                            jobStore.save(checkpoint);
+                        }
+                    }
+                    return update(stages, exists, Stages::setUploadSuccess, Stages::setUploadFailed);
+                })
+                .stage("fork", () -> {
+                    String checkpointed = checkpoint.getForkRepoURL();
+                    String forkRepoUrl = checkpointed != null
+                            ? checkpointed
+                            : githubService.createFork(initialContext.getMainRepoURL());
+                    boolean forked = forkRepoUrl != null && !forkRepoUrl.isEmpty();
+                    if (forked) {
+                        context.updateAndGet(c -> c.withForkRepoURL(forkRepoUrl));
+                        if (checkpointed == null) {
+                            checkpoint.recordFork(forkRepoUrl);
+                            jobStore.save(checkpoint);
+                        }
+                    }
+                    return update(stages, forked, Stages::setForkSuccess, Stages::setForkFailed);
+                }, "metadata")
+                // generates commits file
+                .stage("commits", () -> {
+                    scriptService.fetchCommits(context.get());
+                    return true;
+                }, "metadata")
+                .stage("ai-check", () -> update(stages, scriptService.testAi(),
+                        Stages::setAiSuccess, Stages::setAiFailed), "metadata")
+                .stage("clone", () -> {
+                    Path cloneDir = scriptService.cloneDir(context.get());
+                    boolean cloned = cloneDir.toString().equals(checkpoint.getCloneDir())
+                            && Files.isDirectory(cloneDir);
+                    if (!cloned) {
+                        cloned = scriptService.makeClone(context.get());
+                        if (cloned) {
+                            checkpoint.recordClone(cloneDir.toString());
+                            jobStore.save(checkpoint);
+                        }
+                    }
+                    return update(stages, cloned, Stages::setCloneSuccess, Stages::setCloneFailed);
+                }, "metadata", "fork")
+                .stage("analysis", () -> {
+                    AnalysisReport checkpointed = checkpoint.getSelection();
+                    if (checkpointed != null) {
+                        report.set(checkpointed);
+                        selection.set(checkpointed);
+                    } else {
+                        report.set(scriptService.doAnalysis(context.get()));
+                        if (report.get() != null) {
+                            selection.set(scriptService.selectFiles(report.get()));
+                            checkpoint.recordSelection(selection.get());
+                            jobStore.save(checkpoint);
+                        }
+                    }
+                    return update(stages, report.get() != null,
+                            Stages::setAnalysisSuccess, Stages::setAnalysisFailed);
+                }, "clone")
+                .stage("json-report", () -> {
+                    scriptService.writeJsonReport(context.get(), report.get());
+                    return true;
+                }, "analysis")
+                .stage("pull-requests", () -> {
+                    pullRequests.set(scriptService.letAiWork(context.get(), selection.get(), checkpoint));
+                    return update(stages, pullRequests.get() != null,
+                            Stages::setPullRequestsSuccess, Stages::setPullRequestsFailed);
+                }, "analysis", "ai-check")
+                .stage("cleanup", () -> scriptService.cleanResources(context.get()),
+                        "pull-requests", "json-report", "commits");
+
+        Map<String, StageGraph.Outcome> outcomes = graph.run(stageExecutor);
+        log.info("Job {} finished: {}", initialContext.getJobId(), outcomes);
+        if (cachedResult.get() != null) {
+            return reuse(stages, initialContext, checkpoint, cachedResult.get());
         }
-        sink.tryEmitNext(stages);
-        // analysis
-        response = scriptService.doAnalysis();
-        if (response) {
-            stages.setAnalysisSuccess();
-        } else {
-            stages.setAnalysisFailed();
-            sink.tryEmitNext(stages);
-            return;
+        jobStore.finish(checkpoint, outcomes.get("cleanup") == StageGraph.Outcome.SUCCEEDED
+                ? JobCheckpoint.Status.DONE
+                : JobCheckpoint.Status.FAILED);
+        if (outcomes.get("pull-requests") != StageGraph.Outcome.SUCCEEDED) {
+            return null;
         }
-        sink.tryEmitNext(stages);
-
-        scriptService.convertXmlFileToJsonFile();
-        // generates commits file
-        scriptService.fetchCommits();
-
-        response = scriptService.testAi();
-        if (response) {
-            stages.setAiSuccess();
-        } else {
-            stages.setAiFailed();
-            sink.tryEmitNext(stages);
-            return;
+        JobContext finalContext = context.get();
+        Stages finalStages;
+        synchronized (stages) {
+            finalStages = stages.snapshot();
         }
-        sink.tryEmitNext(stages);
-        // prs
-
-        response = scriptService.letAiWork();
-        if (response) {
-            stages.setPullRequestsSuccess();
-        } else {
-            stages.setPullRequestsFailed();
-            sink.tryEmitNext(stages);
-            return;
+        return new JobResult(finalContext.getJobId(),
+                finalContext.getRepoOwner() + "/" + finalContext.getRepoName(),
+                finalContext.getMetadata().getHeadSha(), finalStages, report.get(), pullRequests.get());
+    }
+
+    /**
+     * Finishes a job whose repository and head commit were processed recently with that job's result.
+     */
+    private JobResult reuse(Stages stages, JobContext context, JobCheckpoint checkpoint, JobResult cached) {
+        log.info("{} is unchanged since job {}, reusing its result", cached.getRepository(), cached.getJobId());
+        jobStore.finish(checkpoint, JobCheckpoint.Status.DONE);
+        Stages finalStages;
+        synchronized (stages) {
+            stages.copyFlagsFrom(cached.getStages());
+            publish(stages);
+            finalStages = stages.snapshot();
         }
-        sink.tryEmitNext(stages);
-        // cleaning resources
+        return new JobResult(context.getJobId(), cached.getRepository(), cached.getHeadSha(), finalStages,
+                cached.getReport(), cached.getPullRequests());
+    }
 
-        scriptService.cleanResources();
+    /**
+     * Records a stage result and publishes it. Stages finish on different threads, so updates
+     * are serialized on the job's {@link Stages}.
+     */
+    private boolean update(Stages stages, boolean success, Consumer<Stages> onSuccess, Consumer<Stages> onFailure) {
+        synchronized (stages) {
+            (success ? onSuccess : onFailure).accept(stages);
+            publish(stages);
+        }
+        return success;
     }
 }
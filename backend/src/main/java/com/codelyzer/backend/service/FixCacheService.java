@@ -0,0 +1,144 @@
+package com.codelyzer.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed cache of LLM block fixes.
+ * A fix is keyed by the normalized block text, the violation it fixes, the model and the prompt
+ * version, so identical blocks with the same violation are only sent to the LLM once, across files,
+ * repositories and restarts. A bounded LRU map sits in front of the on-disk store.
+ * Layout: {@code <dir>/<first two hex chars>/<rest of key>.txt}.
+ */
+@Service
+public class FixCacheService {
+    private static final Logger log = LoggerFactory.getLogger(FixCacheService.class);
+    final String basePath = new File("").getAbsolutePath();
+
+    private final boolean enabled;
+    private final Path cacheDir;
+    private final Map<String, String> memory;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+
+    public FixCacheService(@Value("${codelyzer.llm.cache.enabled:true}") boolean enabled,
+                           @Value("${codelyzer.llm.cache.dir:backend/temp/cache/llm}") String cacheDir,
+                           @Value("${codelyzer.llm.cache.memory-entries:2000}") int memoryEntries) {
+        this.enabled = enabled;
+        this.cacheDir = Paths.get(basePath).resolve(cacheDir);
+        this.memory = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > memoryEntries;
+            }
+        });
+    }
+
+    /**
+     * Builds the cache key of a block fix. Trailing whitespace and line endings are ignored,
+     * and the violation position is taken relative to the block, so the same code at a
+     * different place in a file maps to the same key.
+     */
+    public static String key(List<String> blockLines, String source, String message,
+                             int lineInBlock, int column, String model, String promptVersion) {
+        MessageDigest sha256 = digest();
+        for (String part : new String[]{model, promptVersion, source, message,
+                String.valueOf(lineInBlock), String.valueOf(column)}) {
+            sha256.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) 0);
+        }
+        for (String line : blockLines) {
+            sha256.update(line.stripTrailing().getBytes(StandardCharsets.UTF_8));
+            sha256.update((byte) '\n');
+        }
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    /**
+     * @return the cached fix, or null on a miss
+     */
+    public String lookup(String key) {
+        if (!enabled) return null;
+        String fix = memory.get(key);
+        if (fix != null) {
+            memoryHits.incrementAndGet();
+            return fix;
+        }
+        Path entry = entryPath(key);
+        if (Files.exists(entry)) {
+            try {
+                fix = Files.readString(entry);
+                memory.put(key, fix);
+                diskHits.incrementAndGet();
+                return fix;
+            } catch (IOException e) {
+                log.warn("Ignoring unreadable fix cache entry {}: {}", entry, e.getMessage());
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void store(String key, String fix) {
+        if (!enabled || fix == null) return;
+        memory.put(key, fix);
+        stores.incrementAndGet();
+        Path entry = entryPath(key);
+        try {
+            Files.createDirectories(entry.getParent());
+            // write then rename, so concurrent jobs never read a half-written entry
+            Path temp = entry.resolveSibling(entry.getFileName() + "." + UUID.randomUUID() + ".tmp");
+            Files.writeString(temp, fix);
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to store fix cache entry {}: {}", entry, e.getMessage());
+        }
+    }
+
+    /**
+     * Hit and miss counters since startup.
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("diskHits", diskHits.get());
+        stats.put("misses", misses.get());
+        stats.put("stores", stores.get());
+        stats.put("memoryEntries", (long) memory.size());
+        return stats;
+    }
+
+    private Path entryPath(String key) {
+        return cacheDir.resolve(key.substring(0, 2)).resolve(key.substring(2) + ".txt");
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.codelyzer.backend.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Low-level git operations needed to turn a fixed file into a pushed patch branch.
+ */
+public interface GitEngine {
+
+    /**
+     * Sets the URL of the origin remote.
+     */
+    void configureRemote(String repoDir, String remoteUrl) throws IOException, InterruptedException;
+
+    /**
+     * Creates {@code branchName} from {@code baseBranch} with one commit that replaces
+     * {@code relativePath} by the content of {@code content}.
+     * @return false when the content is identical to the base and nothing was created
+     */
+    boolean commitFile(String repoDir, String relativePath, Path content, String baseBranch,
+                       String branchName, String message) throws IOException, InterruptedException;
+
+    /**
+     * Pushes the given local branches to origin.
+     */
+    void push(String repoDir, List<String> branches) throws IOException, InterruptedException;
+}
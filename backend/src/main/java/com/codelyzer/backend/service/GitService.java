@@ -2,103 +2,84 @@ package com.codelyzer.backend.service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
 
+/**
+ * Builds and pushes patch branches through the configured {@link GitEngine}:
+ * in-process JGit by default, or the forked git CLI with {@code codelyzer.git.engine=cli}.
+ */
 @Service
 public class GitService {
 
     private static final Logger logger = LoggerFactory.getLogger(GitService.class);
 
-    public static String commitOnNewBranch(String repoDir, String srcFile, String tempFile,
-                                           String commitMsg, String githubToken,
-                                           String forkOwner, String forkRepo,
-                                           String baseBranch) {
-        try {
-            if (!Files.exists(Path.of(repoDir)) || !Files.exists(Path.of(srcFile)) || !Files.exists(Path.of(tempFile))) {
-                logger.error("Invalid file or repo path - repoDir: {}, srcFile: {}, tempFile: {}",
-                        repoDir, srcFile, tempFile);
-                return null;
-            }
-
-            // Configure remote
-            String remoteUrl = "https://" + githubToken + "@github.com/" + forkOwner + "/" + forkRepo + ".git";
-            runGit(repoDir, "remote", "set-url", "origin", remoteUrl);
-            logger.info("Configured remote origin for {}/{}", forkOwner, forkRepo);
-
-            // Checkout base branch (without pull)
-            runGit(repoDir, "checkout", baseBranch);
-            logger.info("Checked out base branch: {}", baseBranch);
-
-            // Copy file AFTER checking out base branch
-            Files.copy(Path.of(tempFile), Path.of(srcFile), StandardCopyOption.REPLACE_EXISTING);
-            logger.debug("Copied {} to {}", tempFile, srcFile);
+    private final GitEngine engine;
 
-            // Check for changes before branching
-            if (!hasChanges(repoDir)) {
-                logger.warn("No file changes detected, skipping branch creation");
-                return null;
-            }
+    public GitService(@Value("${codelyzer.git.engine:jgit}") String engineName,
+                      JGitEngine jGitEngine, CliGitEngine cliGitEngine) {
+        this.engine = "cli".equals(engineName) ? cliGitEngine : jGitEngine;
+        logger.info("Using {} git engine", "cli".equals(engineName) ? "cli" : "jgit");
+    }
 
-            // Create unique branch name (UUID-based)
-            String branchName = "codelyzer-patch-" + UUID.randomUUID().toString().substring(0, 8);
-            runGit(repoDir, "checkout", "-b", branchName);
-            logger.info("Created new branch: {}", branchName);
+    /**
+     * Points the origin remote of the clone at the bot's fork, authenticated with the token.
+     * Done once per job, before any patch branch is built.
+     */
+    public void configureRemote(String repoDir, String githubToken, String forkOwner, String forkRepo)
+            throws IOException, InterruptedException {
+        String remoteUrl = "https://" + githubToken + "@github.com/" + forkOwner + "/" + forkRepo + ".git";
+        engine.configureRemote(repoDir, remoteUrl);
+        logger.info("Configured remote origin for {}/{}", forkOwner, forkRepo);
+    }
 
-            // Stage only one file
-            Path relativePath = Path.of(repoDir).relativize(Path.of(srcFile));
-            runGit(repoDir, "add", relativePath.toString());
-            logger.debug("Staged file: {}", relativePath);
+    /**
+     * Commits {@code tempFile} over {@code srcFile} on a new local branch, without pushing.
+     * @return the new branch, or null when there was nothing to commit or git failed
+     */
+    public String prepareBranch(String repoDir, String srcFile, String tempFile,
+                                String commitMsg, String baseBranch) {
+        if (!Files.exists(Path.of(repoDir)) || !Files.exists(Path.of(srcFile)) || !Files.exists(Path.of(tempFile))) {
+            logger.error("Invalid file or repo path - repoDir: {}, srcFile: {}, tempFile: {}",
+                    repoDir, srcFile, tempFile);
+            return null;
+        }
 
-            // Double check for changes
-            if (!hasChanges(repoDir)) {
-                logger.warn("No changes to commit after staging, returning to base branch");
-                // Cleanup: go back to base branch
-                runGit(repoDir, "checkout", baseBranch);
+        // Create unique branch name (UUID-based)
+        String branchName = "codelyzer-patch-" + UUID.randomUUID().toString().substring(0, 8);
+        String relativePath = Path.of(repoDir).relativize(Path.of(srcFile)).toString();
+        try {
+            if (!engine.commitFile(repoDir, relativePath, Path.of(tempFile), baseBranch, branchName, commitMsg)) {
                 return null;
             }
-
-            // Commit and push
-            runGit(repoDir, "commit", "-m", commitMsg);
-            logger.info("Committed changes with message: {}", commitMsg);
-
-            runGit(repoDir, "push", "-u", "origin", branchName);
-            logger.info("Successfully pushed branch: {}", branchName);
-
-            // IMPORTANT: Return to base branch for next iteration
-            runGit(repoDir, "checkout", baseBranch);
-            logger.debug("Returned to base branch: {}", baseBranch);
-
             return branchName;
         } catch (Exception e) {
             logger.error("Error during git operations in repo {}: {}", repoDir, e.getMessage(), e);
-            // Try to return to base branch even on error
-            try {
-                runGit(repoDir, "checkout", baseBranch);
-                logger.debug("Recovered to base branch after error");
-            } catch (Exception recoveryError) {
-                logger.error("Failed to recover to base branch: {}", recoveryError.getMessage());
-            }
             return null;
         }
     }
 
-    private static boolean hasChanges(String repoDir) throws IOException, InterruptedException {
-        Process proc = new ProcessBuilder("git", "-C", repoDir, "status", "--porcelain")
-                .redirectErrorStream(true).start();
-        String status = new String(proc.getInputStream().readAllBytes()).trim();
-        int exitCode = proc.waitFor();
-
-        if (exitCode != 0) {
-            logger.warn("Git status command returned non-zero exit code: {}", exitCode);
+    /**
+     * Pushes all prepared branches of a job in one push, so only one connection and one pack
+     * are needed no matter how many files were fixed.
+     */
+    public boolean pushBranches(String repoDir, List<String> branches) {
+        if (branches.isEmpty()) {
+            return true;
+        }
+        try {
+            engine.push(repoDir, branches);
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to push {} branches from {}: {}", branches.size(), repoDir, e.getMessage(), e);
+            return false;
         }
-
-        return !status.isEmpty();
     }
 
-    private static void runGit(String repoDir, String... args) throws IOException, InterruptedException {
+    static void runGit(String repoDir, String... args) throws IOException, InterruptedException {
         List<String> cmd = new ArrayList<>();
         cmd.add("git");
         cmd.add("-C");
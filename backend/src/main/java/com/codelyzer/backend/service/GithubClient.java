@@ -0,0 +1,259 @@
+package com.codelyzer.backend.service;
+
+import com.codelyzer.backend.logic.TokenBucket;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared, non-blocking client for the GitHub REST API.
+ * Connections are pooled; GET responses are cached by ETag and revalidated with
+ * {@code If-None-Match} (a 304 does not count against the rate limit); requests are paced by one
+ * token bucket per rate-limit resource ({@code core} for REST, {@code graphql} for GraphQL), each
+ * following the {@code X-RateLimit-*} headers of its resource and pausing on {@code Retry-After}.
+ * Rate-limited requests are retried once the bucket allows it.
+ */
+@Component
+public class GithubClient {
+    private static final Logger log = LoggerFactory.getLogger(GithubClient.class);
+    private static final String GITHUB_API_BASE = "https://api.github.com";
+    private static final int RATE_LIMIT_RETRIES = 2;
+    private static final String CORE = "core";
+    private static final String GRAPHQL = "graphql";
+
+    private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    // X-RateLimit-Resource → bucket pacing requests against that budget
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final int burst;
+    private final double maxPerSecond;
+    private final Map<String, CachedBody> etagCache;
+
+    public GithubClient(@Value("${github.bot.token}") String botToken,
+                        @Value("${codelyzer.github.max-connections:50}") int maxConnections,
+                        @Value("${codelyzer.github.timeout-ms:30000}") long timeoutMs,
+                        @Value("${codelyzer.github.rate.burst:10}") int burst,
+                        @Value("${codelyzer.github.rate.per-second:5}") double perSecond,
+                        @Value("${codelyzer.github.etag-cache-entries:500}") int etagCacheEntries,
+                        WebClient.Builder webClientBuilder) {
+        this.connectionProvider = ConnectionProvider.builder("github")
+                .maxConnections(maxConnections)
+                .maxIdleTime(Duration.ofSeconds(60))
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
+                .responseTimeout(Duration.ofMillis(timeoutMs));
+        this.webClient = webClientBuilder
+                .baseUrl(GITHUB_API_BASE)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .defaultHeader(HttpHeaders.ACCEPT, "application/vnd.github+json")
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "token " + botToken)
+                .defaultHeader("X-GitHub-Api-Version", "2022-11-28")
+                .build();
+        this.burst = burst;
+        this.maxPerSecond = perSecond;
+        this.etagCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedBody> eldest) {
+                return size() > etagCacheEntries;
+            }
+        });
+    }
+
+    /**
+     * GET with ETag revalidation. Non-2xx responses are returned, not raised.
+     */
+    public Mono<Response> get(String path) {
+        return exchange(HttpMethod.GET, path, null);
+    }
+
+    /**
+     * POST of a JSON body. Non-2xx responses are returned, not raised.
+     */
+    public Mono<Response> post(String path, Object body) {
+        return exchange(HttpMethod.POST, path, body);
+    }
+
+    /**
+     * GraphQL query; errors are reported in the body's {@code errors} array.
+     */
+    public Mono<Response> graphql(String query, Map<String, Object> variables) {
+        return exchange(HttpMethod.POST, "/graphql", Map.of("query", query, "variables", variables));
+    }
+
+    private Mono<Response> exchange(HttpMethod method, String path, Object body) {
+        return Mono.defer(() -> {
+            CachedBody cached = method == HttpMethod.GET ? etagCache.get(path) : null;
+            WebClient.RequestBodySpec spec = webClient.method(method).uri(path)
+                    .headers(headers -> ifNoneMatch(headers, cached));
+            WebClient.RequestHeadersSpec<?> request = body != null ? spec.bodyValue(body) : spec;
+            String resource = "/graphql".equals(path) ? GRAPHQL : CORE;
+            return Mono.delay(Duration.ofNanos(bucket(resource).reserve()))
+                    .then(request.exchangeToMono(response -> handle(method, path, resource, cached, response)));
+        }).retryWhen(rateLimitRetry())
+                .onErrorResume(RateLimitedException.class,
+                        e -> Mono.just(new Response(e.status, MissingNode.getInstance())));
+    }
+
+    private Mono<Response> handle(HttpMethod method, String path, String resource, CachedBody cached,
+                                  ClientResponse response) {
+        int status = observe(response, resource);
+        if (status == 304 && cached != null) {
+            return response.releaseBody().thenReturn(new Response(200, cached.body));
+        }
+        if (isRateLimited(status, response.headers().asHttpHeaders())) {
+            return response.releaseBody().then(Mono.<Response>error(new RateLimitedException(status)));
+        }
+        String etag = response.headers().asHttpHeaders().getETag();
+        return response.bodyToMono(JsonNode.class)
+                .defaultIfEmpty(MissingNode.getInstance())
+                .map(body -> {
+                    if (method == HttpMethod.GET && status == 200 && etag != null) {
+                        etagCache.put(path, new CachedBody(etag, body));
+                    }
+                    return new Response(status, body);
+                });
+    }
+
+    private TokenBucket bucket(String resource) {
+        return buckets.computeIfAbsent(resource, key -> new TokenBucket(burst, maxPerSecond));
+    }
+
+    /**
+     * Retunes the bucket of the response's rate-limit resource from its headers: spreads the
+     * remaining budget over the time left in the window, and pauses until the reset (or for
+     * {@code Retry-After}) when told to. Without an {@code X-RateLimit-Resource} header the
+     * resource the request was paced against is used.
+     */
+    private int observe(ClientResponse response, String requestResource) {
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        String header = headers.getFirst("X-RateLimit-Resource");
+        String resource = header != null && !header.isBlank() ? header.trim() : requestResource;
+        TokenBucket bucket = bucket(resource);
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        String remaining = headers.getFirst("X-RateLimit-Remaining");
+        String reset = headers.getFirst("X-RateLimit-Reset");
+        if (remaining != null && reset != null) {
+            try {
+                long left = Long.parseLong(remaining);
+                long secondsToReset = Math.max(1, Long.parseLong(reset) - nowSeconds);
+                if (left == 0) {
+                    log.warn("GitHub {} rate limit exhausted, pausing for {} s", resource, secondsToReset);
+                    bucket.pauseFor(TimeUnit.SECONDS.toNanos(secondsToReset));
+                }
+                bucket.setRate(Math.min(maxPerSecond, (double) left / secondsToReset));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed rate-limit headers: {} / {}", remaining, reset);
+            }
+        }
+        String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (retryAfter != null) {
+            try {
+                long seconds = Long.parseLong(retryAfter.trim());
+                log.warn("GitHub asked to retry after {} s", seconds);
+                bucket.pauseFor(TimeUnit.SECONDS.toNanos(seconds));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed Retry-After: {}", retryAfter);
+            }
+        }
+        return response.statusCode().value();
+    }
+
+    /**
+     * Primary (remaining = 0) and secondary (Retry-After) rate limits come back as 403 or 429.
+     */
+    private static boolean isRateLimited(int status, HttpHeaders headers) {
+        if (status == 429) return true;
+        return status == 403 && (headers.getFirst(HttpHeaders.RETRY_AFTER) != null
+                || "0".equals(headers.getFirst("X-RateLimit-Remaining")));
+    }
+
+    private static void ifNoneMatch(HttpHeaders headers, CachedBody cached) {
+        if (cached != null) {
+            headers.setIfNoneMatch(cached.etag);
+        }
+    }
+
+    private static Retry rateLimitRetry() {
+        // the bucket has already been paused, so the resubscription itself waits
+        return Retry.max(RATE_LIMIT_RETRIES).filter(RateLimitedException.class::isInstance);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        connectionProvider.dispose();
+    }
+
+    /**
+     * Status and JSON body of a GitHub response.
+     */
+    public static final class Response {
+        private final int status;
+        private final JsonNode body;
+
+        private Response(int status, JsonNode body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public JsonNode getBody() {
+            return body;
+        }
+
+        public boolean isSuccessful() {
+            return status >= 200 && status < 300;
+        }
+
+        /**
+         * Text of a top-level field, or null when it is missing.
+         */
+        public String text(String field) {
+            JsonNode value = body.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+    }
+
+    private static final class CachedBody {
+        private final String etag;
+        private final JsonNode body;
+
+        private CachedBody(String etag, JsonNode body) {
+            this.etag = etag;
+            this.body = body;
+        }
+    }
+
+    private static final class RateLimitedException extends RuntimeException {
+        private final int status;
+
+        private RateLimitedException(int status) {
+            super("GitHub rate limit hit (HTTP " + status + ")", null, false, false);
+            this.status = status;
+        }
+    }
+}
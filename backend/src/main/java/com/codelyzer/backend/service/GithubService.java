@@ -1,80 +1,168 @@
 package com.codelyzer.backend.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.json.JSONObject;
+import com.codelyzer.backend.entity.RepoMetadata;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
-import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class GithubService {
     private static final Logger log = LoggerFactory.getLogger(GithubService.class);
-    private static final String GITHUB_API_BASE = "https://api.github.com";
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    @Value("${github.bot.token}")
-    private String botToken;
+    // upper bound for one call, including time spent waiting on the rate limiter
+    private static final Duration CALL_TIMEOUT = Duration.ofMinutes(2);
+    private static final String METADATA_QUERY = """
+            query($owner: String!, $name: String!, $commits: Int!) {
+              repository(owner: $owner, name: $name) {
+                isFork
+                defaultBranchRef {
+                  name
+                  target {
+                    ... on Commit {
+                      oid
+                      history(first: $commits) {
+                        nodes { oid message author { name date } }
+                      }
+                    }
+                  }
+                }
+              }
+            }
+            """;
+
+    private final GithubClient githubClient;
+    private final long forkPollInitialMs;
+    private final long forkPollMaxMs;
+    private final long forkReadyTimeoutMs;
+    private volatile String botLogin;
 
+    public GithubService(GithubClient githubClient,
+                         @Value("${codelyzer.github.fork.poll-initial-ms:1000}") long forkPollInitialMs,
+                         @Value("${codelyzer.github.fork.poll-max-ms:15000}") long forkPollMaxMs,
+                         @Value("${codelyzer.github.fork.ready-timeout-ms:120000}") long forkReadyTimeoutMs) {
+        this.githubClient = githubClient;
+        this.forkPollInitialMs = forkPollInitialMs;
+        this.forkPollMaxMs = forkPollMaxMs;
+        this.forkReadyTimeoutMs = forkReadyTimeoutMs;
+    }
+
+    /**
+     * Returns the bot's fork of the repository. An existing fork is reused and brought up to date
+     * with its upstream through the merge-upstream API; a new fork is created and polled with
+     * backoff until its default branch can be read, since GitHub creates forks asynchronously.
+     * @return the fork's URL, or null if no usable fork could be obtained
+     */
     public String createFork(String repoUrl) {
         try {
-            HttpURLConnection conn = getHttpURLConnection(repoUrl);
-            int code = conn.getResponseCode();
+            String[] parts = repoUrl.replace("https://github.com/", "").split("/");
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("Invalid GitHub repo URL: " + repoUrl);
+            }
+            String owner = parts[0];
+            String repo = parts[1].replace(".git", "");
+
+            String login = botLogin();
+            if (login != null) {
+                GithubClient.Response existing = githubClient.get("/repos/" + login + "/" + repo).block(CALL_TIMEOUT);
+                if (existing != null && existing.getStatus() == 200 && isForkOf(existing.getBody(), owner, repo)) {
+                    syncFork(login, repo, existing.text("default_branch"));
+                    log.info("Reusing existing fork: {}", existing.text("html_url"));
+                    return existing.text("html_url");
+                }
+            }
 
-            InputStream is = (code >= 200 && code < 300) ? conn.getInputStream() : conn.getErrorStream();
-            String response = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))
-                    .lines()
-                    .reduce("", (a, b) -> a + b + "\n");
+            GithubClient.Response response = githubClient
+                    .post("/repos/" + owner + "/" + repo + "/forks", Map.of())
+                    .block(CALL_TIMEOUT);
+            int code = response.getStatus();
 
             if (code == 201 || code == 202) {
-                String forkUrl = extractForkUrl(response);
+                String forkUrl = response.text("html_url");
+                String forkOwner = response.getBody().path("owner").path("login").asText(login);
+                if (!awaitForkReady(forkOwner, response.text("name"), response.text("default_branch"))) {
+                    return null;
+                }
                 log.info("Fork created successfully: {}", forkUrl != null ? forkUrl : "URL not found");
                 return forkUrl != null ? forkUrl : "Fork created (URL not found)";
             } else {
-                log.error("Fork creation failed with HTTP code {}: {}", code, response);
+                log.error("Fork creation failed with HTTP code {}: {}", code, response.getBody());
                 return null;
             }
 
-        } catch (IOException e) {
-            log.error("IOException while creating fork for {}: {}", repoUrl, e.getMessage(), e);
-            return null;
         } catch (Exception e) {
             log.error("Unexpected error while creating fork for {}: {}", repoUrl, e.getMessage(), e);
             return null;
         }
     }
 
-    private HttpURLConnection getHttpURLConnection(String repoUrl) throws IOException {
-        String[] parts = repoUrl.replace("https://github.com/", "").split("/");
-        if (parts.length < 2) {
-            throw new IllegalArgumentException("Invalid GitHub repo URL: " + repoUrl);
+    /**
+     * Login of the account behind the bot token, looked up once.
+     */
+    private String botLogin() {
+        String login = botLogin;
+        if (login == null) {
+            GithubClient.Response response = githubClient.get("/user").block(CALL_TIMEOUT);
+            if (response == null || response.getStatus() != 200) {
+                log.warn("Could not resolve bot login, forks will not be reused");
+                return null;
+            }
+            login = response.text("login");
+            botLogin = login;
         }
+        return login;
+    }
 
-        String owner = parts[0];
-        String repo = parts[1].replace(".git", "");
-        String apiUrl = "https://api.github.com/repos/" + owner + "/" + repo + "/forks";
+    private static boolean isForkOf(JsonNode fork, String owner, String repo) {
+        return fork.path("fork").asBoolean(false)
+                && (owner + "/" + repo).equalsIgnoreCase(fork.path("parent").path("full_name").asText());
+    }
 
-        HttpURLConnection conn = (HttpURLConnection) new URL(apiUrl).openConnection();
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Accept", "application/vnd.github+json");
-        conn.setRequestProperty("Authorization", "token " + botToken);
-        conn.setDoOutput(true);
-        return conn;
+    /**
+     * Fast-forwards the fork's default branch to upstream. A fork that cannot be synced is still
+     * used, so a failure is only logged.
+     */
+    private void syncFork(String forkOwner, String repo, String branch) {
+        if (branch == null) return;
+        GithubClient.Response response = githubClient
+                .post("/repos/" + forkOwner + "/" + repo + "/merge-upstream", Map.of("branch", branch))
+                .block(CALL_TIMEOUT);
+        if (response != null && response.getStatus() == 200) {
+            log.info("Synced fork {}/{}: {}", forkOwner, repo, response.text("message"));
+        } else {
+            log.warn("Could not sync fork {}/{} with upstream (HTTP {})", forkOwner, repo,
+                    response != null ? response.getStatus() : -1);
+        }
     }
 
-    private String extractForkUrl(String response) {
+    /**
+     * Polls the new fork's default branch with exponential backoff until it is readable.
+     */
+    private boolean awaitForkReady(String forkOwner, String forkName, String branch) {
+        if (forkOwner == null || forkName == null || branch == null) return true;
+        String path = "/repos/" + forkOwner + "/" + forkName + "/branches/" + branch;
         try {
-            JSONObject json = new JSONObject(response);
-            return json.getString("html_url");
+            Mono.defer(() -> githubClient.get(path))
+                    .flatMap(response -> response.getStatus() == 200
+                            ? Mono.just(response)
+                            : Mono.<GithubClient.Response>error(new ForkNotReadyException(response.getStatus())))
+                    .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(forkPollInitialMs))
+                            .maxBackoff(Duration.ofMillis(forkPollMaxMs))
+                            .filter(ForkNotReadyException.class::isInstance))
+                    .timeout(Duration.ofMillis(forkReadyTimeoutMs))
+                    .block();
+            return true;
         } catch (Exception e) {
-            log.error("Failed to parse fork URL from response", e);
-            return null;
+            log.error("Fork {}/{} did not become ready: {}", forkOwner, forkName, e.getMessage());
+            return false;
         }
     }
 
@@ -85,10 +173,8 @@ public class GithubService {
                                     String originalOwner, String originalRepo,
                                     String headBranch, String baseBranch,
                                     String prTitle, String prBody) {
-        HttpURLConnection conn = null;
         try {
             String headRef = forkOwner + ":" + headBranch;
-            String apiUrl = String.format("%s/repos/%s/%s/pulls", GITHUB_API_BASE, originalOwner, originalRepo);
 
             log.info("Creating PR: {}/{}:{} → {}/{}:{}",
                     forkOwner, forkRepo, headBranch, originalOwner, originalRepo, baseBranch);
@@ -101,71 +187,94 @@ public class GithubService {
             requestBody.put("body", prBody);
             requestBody.put("maintainer_can_modify", true);
 
-            String jsonBody = objectMapper.writeValueAsString(requestBody);
-            log.debug("PR request body: {}", jsonBody);
-
-            // Create connection
-            URL url = new URL(apiUrl);
-            conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Authorization", "token " + botToken);
-            conn.setRequestProperty("Accept", "application/vnd.github.v3+json");
-            conn.setRequestProperty("Content-Type", "application/json");
-            conn.setDoOutput(true);
-            conn.setConnectTimeout(10000);
-            conn.setReadTimeout(10000);
-
-            // Send request
-            try (OutputStream os = conn.getOutputStream()) {
-                byte[] input = jsonBody.getBytes(StandardCharsets.UTF_8);
-                os.write(input, 0, input.length);
-            }
-
-            // Read response
-            int responseCode = conn.getResponseCode();
+            GithubClient.Response response = githubClient
+                    .post("/repos/" + originalOwner + "/" + originalRepo + "/pulls", requestBody)
+                    .block(CALL_TIMEOUT);
+            int responseCode = response.getStatus();
             log.debug("PR API response code: {}", responseCode);
 
             if (responseCode == 200 || responseCode == 201) {
-                String responseBody = readInputStream(conn.getInputStream());
-                log.debug("PR API response: {}", responseBody);
-
-                Map<String, Object> response = objectMapper.readValue(responseBody, Map.class);
-                String htmlUrl = (String) response.get("html_url");
-                Integer prNumber = (Integer) response.get("number");
-                log.info("PR #{} created successfully: {}", prNumber, htmlUrl);
+                String htmlUrl = response.text("html_url");
+                log.info("PR #{} created successfully: {}", response.text("number"), htmlUrl);
                 return htmlUrl;
             } else if (responseCode == 422) {
-                String errorBody = readInputStream(conn.getErrorStream());
+                String errorBody = response.getBody().toString();
                 log.warn("PR validation error (422): {}", errorBody);
                 if (errorBody.toLowerCase().contains("pull request already exists")) {
                     log.warn("PR already exists for branch: {}", headBranch);
                 }
                 return null;
             } else {
-                String errorBody = readInputStream(conn.getErrorStream());
-                log.error("Failed to create PR. Response code: {}, Error: {}", responseCode, errorBody);
+                log.error("Failed to create PR. Response code: {}, Error: {}", responseCode, response.getBody());
                 return null;
             }
 
-        } catch (IOException e) {
-            log.error("IOException while creating PR: {}", e.getMessage(), e);
-            return null;
         } catch (Exception e) {
             log.error("Unexpected error while creating PR: {}", e.getMessage(), e);
             return null;
-        } finally {
-            if (conn != null) {
-                conn.disconnect();
+        }
+    }
+
+    /**
+     * Fetches existence, default branch, head commit, fork status and the latest commits of a
+     * repository in one GraphQL round trip.
+     * @return the metadata ({@link RepoMetadata#missing()} if the repository does not exist),
+     *         or null when GitHub could not be asked
+     */
+    public RepoMetadata fetchMetadata(String owner, String repo, int commitCount) {
+        try {
+            GithubClient.Response response = githubClient
+                    .graphql(METADATA_QUERY, Map.of("owner", owner, "name", repo, "commits", commitCount))
+                    .block(CALL_TIMEOUT);
+            if (response == null || !response.isSuccessful()) {
+                log.error("Metadata query for {}/{} failed with HTTP {}", owner, repo,
+                        response != null ? response.getStatus() : -1);
+                return null;
             }
+            JsonNode repository = response.getBody().path("data").path("repository");
+            if (repository.isMissingNode() || repository.isNull()) {
+                JsonNode errors = response.getBody().path("errors");
+                // rate limits, permission errors and timeouts also come back as HTTP 200 without data
+                if (isNotFound(errors)) {
+                    log.info("Repository {}/{} not found: {}", owner, repo, errors);
+                    return RepoMetadata.missing();
+                }
+                log.error("Metadata query for {}/{} failed: {}", owner, repo, errors);
+                return null;
+            }
+
+            JsonNode branch = repository.path("defaultBranchRef");
+            JsonNode head = branch.path("target");
+            List<RepoMetadata.Commit> commits = new ArrayList<>();
+            for (JsonNode node : head.path("history").path("nodes")) {
+                JsonNode author = node.path("author");
+                commits.add(new RepoMetadata.Commit(node.path("oid").asText(), textOrNull(author.path("name")),
+                        textOrNull(author.path("date")), textOrNull(node.path("message"))));
+            }
+            return new RepoMetadata(true, textOrNull(branch.path("name")), textOrNull(head.path("oid")),
+                    repository.path("isFork").asBoolean(false), commits);
+        } catch (Exception e) {
+            log.error("Metadata query for {}/{} failed: {}", owner, repo, e.getMessage(), e);
+            return null;
         }
     }
 
-    private String readInputStream(InputStream inputStream) throws IOException {
-        if (inputStream == null) {
-            return "";
+    private static boolean isNotFound(JsonNode errors) {
+        for (JsonNode error : errors) {
+            if ("NOT_FOUND".equals(error.path("type").asText())) {
+                return true;
+            }
         }
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-            return reader.lines().reduce("", (a, b) -> a + b + "\n");
+        return false;
+    }
+
+    private static String textOrNull(JsonNode node) {
+        return node.isMissingNode() || node.isNull() ? null : node.asText();
+    }
+
+    private static final class ForkNotReadyException extends RuntimeException {
+        private ForkNotReadyException(int status) {
+            super("fork not ready yet (HTTP " + status + ")", null, false, false);
         }
     }
-}
\ No newline at end of file
+}
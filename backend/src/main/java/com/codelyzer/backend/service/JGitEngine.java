@@ -0,0 +1,155 @@
+package com.codelyzer.backend.service;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.PushCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEditor;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.PushResult;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.RemoteRefUpdate;
+import org.eclipse.jgit.transport.URIish;
+import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-process {@link GitEngine} built on JGit.
+ * Blobs, trees and commits are written straight into the object database and branch refs are
+ * created directly, so no process is forked and the working tree is never touched.
+ */
+@Component
+public class JGitEngine implements GitEngine {
+    private static final Logger logger = LoggerFactory.getLogger(JGitEngine.class);
+
+    @Override
+    public void configureRemote(String repoDir, String remoteUrl) throws IOException {
+        try (Git git = Git.open(new File(repoDir))) {
+            StoredConfig config = git.getRepository().getConfig();
+            config.setString("remote", "origin", "url", remoteUrl);
+            config.save();
+        }
+    }
+
+    @Override
+    public boolean commitFile(String repoDir, String relativePath, Path content, String baseBranch,
+                              String branchName, String message) throws IOException {
+        String path = relativePath.replace(File.separatorChar, '/');
+        try (Git git = Git.open(new File(repoDir));
+             ObjectInserter inserter = git.getRepository().newObjectInserter();
+             RevWalk walk = new RevWalk(git.getRepository())) {
+            Repository repository = git.getRepository();
+            RevCommit base = walk.parseCommit(resolveBranch(repository, baseBranch));
+            ObjectId blobId = inserter.insert(Constants.OBJ_BLOB, Files.readAllBytes(content));
+
+            // In-memory index holding the base tree
+            DirCache index = DirCache.newInCore();
+            DirCacheBuilder builder = index.builder();
+            builder.addTree(new byte[0], DirCacheEntry.STAGE_0, walk.getObjectReader(), base.getTree());
+            builder.finish();
+
+            DirCacheEntry existing = index.getEntry(path);
+            if (existing != null && blobId.equals(existing.getObjectId())) {
+                logger.warn("No file changes detected, skipping branch {}", branchName);
+                return false;
+            }
+            FileMode mode = existing != null ? existing.getFileMode() : FileMode.REGULAR_FILE;
+
+            DirCacheEditor editor = index.editor();
+            editor.add(new DirCacheEditor.PathEdit(path) {
+                @Override
+                public void apply(DirCacheEntry entry) {
+                    entry.setFileMode(mode);
+                    entry.setObjectId(blobId);
+                }
+            });
+            editor.finish();
+
+            PersonIdent ident = new PersonIdent(repository);
+            CommitBuilder commit = new CommitBuilder();
+            commit.setTreeId(index.writeTree(inserter));
+            commit.setParentId(base);
+            commit.setAuthor(ident);
+            commit.setCommitter(ident);
+            commit.setMessage(message);
+            ObjectId commitId = inserter.insert(commit);
+            inserter.flush();
+
+            RefUpdate update = repository.updateRef(Constants.R_HEADS + branchName);
+            update.setNewObjectId(commitId);
+            update.setExpectedOldObjectId(ObjectId.zeroId());
+            update.setRefLogMessage("commit: " + message, false);
+            RefUpdate.Result result = update.update(walk);
+            if (result != RefUpdate.Result.NEW) {
+                throw new IOException("Could not create branch " + branchName + ": " + result);
+            }
+            logger.info("Committed changes on {} with message: {}", branchName, message);
+            return true;
+        }
+    }
+
+    @Override
+    public void push(String repoDir, List<String> branches) throws IOException {
+        try (Git git = Git.open(new File(repoDir))) {
+            List<RefSpec> refSpecs = new ArrayList<>();
+            for (String branch : branches) {
+                refSpecs.add(new RefSpec(Constants.R_HEADS + branch + ":" + Constants.R_HEADS + branch));
+            }
+            PushCommand push = git.push().setRemote("origin").setRefSpecs(refSpecs);
+
+            // the token lives in the remote URL's user info, as with the git CLI
+            String remoteUrl = git.getRepository().getConfig().getString("remote", "origin", "url");
+            URIish uri = new URIish(remoteUrl);
+            if (uri.getUser() != null) {
+                push.setCredentialsProvider(new UsernamePasswordCredentialsProvider(uri.getUser(),
+                        uri.getPass() != null ? uri.getPass() : ""));
+            }
+
+            for (PushResult result : push.call()) {
+                for (RemoteRefUpdate update : result.getRemoteUpdates()) {
+                    if (update.getStatus() != RemoteRefUpdate.Status.OK
+                            && update.getStatus() != RemoteRefUpdate.Status.UP_TO_DATE) {
+                        throw new IOException("Push of " + update.getRemoteName() + " failed: "
+                                + update.getStatus() + " " + update.getMessage());
+                    }
+                }
+            }
+            logger.info("Pushed branches: {}", branches);
+        } catch (GitAPIException | URISyntaxException e) {
+            throw new IOException("Push failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static ObjectId resolveBranch(Repository repository, String branch) throws IOException {
+        ObjectId id = repository.resolve(Constants.R_HEADS + branch);
+        if (id == null) {
+            id = repository.resolve(Constants.R_REMOTES + "origin/" + branch);
+        }
+        if (id == null) {
+            throw new IOException("Base branch not found: " + branch);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,92 @@
+package com.codelyzer.backend.service;
+
+import com.codelyzer.backend.entity.JobResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Results of finished jobs, keyed by repository and head commit and evicted after a TTL.
+ * A repository that has not changed since its last successful run is answered from here.
+ */
+@Service
+public class JobResultCache {
+    private final Duration ttl;
+    private final Map<String, JobResult> byKey;
+    private final Map<String, String> keyByJob;
+
+    public JobResultCache(@Value("${codelyzer.jobs.result-cache.ttl-minutes:60}") long ttlMinutes,
+                          @Value("${codelyzer.jobs.result-cache.max-entries:200}") int maxEntries) {
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.byKey = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JobResult> eldest) {
+                return size() > maxEntries;
+            }
+        });
+        this.keyByJob = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Normalized {@code owner/repo} of a repository.
+     */
+    public static String repository(String owner, String repo) {
+        return (owner + "/" + repo).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Cache key of a repository at a commit.
+     */
+    public static String key(String owner, String repo, String headSha) {
+        return key(repository(owner, repo), headSha);
+    }
+
+    /**
+     * Cache key of an {@code owner/repo} repository at a commit.
+     */
+    static String key(String repository, String headSha) {
+        return repository.toLowerCase(Locale.ROOT) + "@" + headSha;
+    }
+
+    public Optional<JobResult> get(String key) {
+        JobResult result = byKey.get(key);
+        if (result == null) return Optional.empty();
+        if (isExpired(result)) {
+            byKey.remove(key, result);
+            return Optional.empty();
+        }
+        return Optional.of(result);
+    }
+
+    public Optional<JobResult> getByJob(String jobId) {
+        String key = keyByJob.get(jobId);
+        return key == null ? Optional.empty() : get(key).filter(result -> result.getJobId().equals(jobId));
+    }
+
+    /**
+     * Stores a result under its repository and head commit; one without a head commit could never
+     * be looked up and is not stored.
+     */
+    public void put(JobResult result) {
+        if (result.getHeadSha() == null) return;
+        String key = key(result.getRepository(), result.getHeadSha());
+        byKey.put(key, result);
+        keyByJob.put(result.getJobId(), key);
+    }
+
+    private boolean isExpired(JobResult result) {
+        return result.getFinishedAt().plus(ttl).isBefore(Instant.now());
+    }
+}
@@ -0,0 +1,197 @@
+package com.codelyzer.backend.service;
+
+import com.codelyzer.backend.entity.JobCheckpoint;
+import com.codelyzer.backend.entity.JobContext;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * File-backed store of {@link JobCheckpoint}s, one small JSON file per job.
+ * Checkpoints are written after every stage and every published file, so a job interrupted by a
+ * restart, or retried after a failure, resumes from its last checkpoint. Only unfinished jobs are
+ * kept in memory.
+ * Layout: {@code <dir>/<jobId>.json}.
+ */
+@Service
+public class JobStore {
+    private static final Logger log = LoggerFactory.getLogger(JobStore.class);
+    final String basePath = new File("").getAbsolutePath();
+
+    private final boolean enabled;
+    private final Path storeDir;
+    private final Duration retention;
+    // running and failed jobs; finished ones only live on disk until the retention expires
+    private final Map<String, JobCheckpoint> jobs = new ConcurrentHashMap<>();
+
+    public JobStore(@Value("${codelyzer.jobs.store.enabled:true}") boolean enabled,
+                    @Value("${codelyzer.jobs.store.dir:backend/temp/jobs}") String storeDir,
+                    @Value("${codelyzer.jobs.store.retention-days:7}") long retentionDays) {
+        this.enabled = enabled;
+        this.storeDir = Paths.get(basePath).resolve(storeDir);
+        this.retention = Duration.ofDays(retentionDays);
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * Creates and stores the checkpoint of a job that is about to run.
+     */
+    public JobCheckpoint start(JobContext context) {
+        JobCheckpoint checkpoint = JobCheckpoint.start(context);
+        jobs.put(checkpoint.getJobId(), checkpoint);
+        save(checkpoint);
+        return checkpoint;
+    }
+
+    /**
+     * Records the final status of a job. A finished job is dropped from memory; its checkpoint
+     * stays on disk until the retention expires.
+     */
+    public void finish(JobCheckpoint checkpoint, JobCheckpoint.Status status) {
+        checkpoint.setStatus(status);
+        save(checkpoint);
+        if (status == JobCheckpoint.Status.DONE) {
+            jobs.remove(checkpoint.getJobId(), checkpoint);
+        } else {
+            jobs.put(checkpoint.getJobId(), checkpoint);
+        }
+    }
+
+    /**
+     * Writes the current state of the checkpoint. Concurrent saves of the same job are
+     * serialized, so an older state never overwrites a newer one.
+     */
+    public void save(JobCheckpoint checkpoint) {
+        if (!enabled) return;
+        synchronized (checkpoint) {
+            write(entryPath(checkpoint.getJobId()), checkpoint.toJson().toString(), checkpoint.getJobId());
+        }
+    }
+
+    /**
+     * Latest unfinished job of the repository that has not expired, whose outputs a retry can reuse. Outputs of an older
+     * head commit are dropped by {@link JobCheckpoint#startAt} once the retry knows the current one.
+     */
+    public Optional<JobCheckpoint> findUnfinished(String owner, String repo) {
+        String repository = JobResultCache.repository(owner, repo);
+        List<JobCheckpoint> expired = expired();
+        return jobs.values().stream()
+                .filter(checkpoint -> checkpoint.getStatus() != JobCheckpoint.Status.DONE)
+                .filter(checkpoint -> !expired.contains(checkpoint))
+                .filter(checkpoint -> repository.equals(
+                        JobResultCache.repository(checkpoint.getRepoOwner(), checkpoint.getRepoName())))
+                .max(Comparator.comparing(JobCheckpoint::getUpdatedAt));
+    }
+
+    /**
+     * Jobs that were still running when the store was loaded, i.e. interrupted by the last shutdown.
+     */
+    public List<JobCheckpoint> interrupted() {
+        return jobs.values().stream()
+                .filter(checkpoint -> checkpoint.getStatus() == JobCheckpoint.Status.RUNNING)
+                .toList();
+    }
+
+    /**
+     * Failed jobs not updated within the retention period; their workspaces are still on disk.
+     */
+    public List<JobCheckpoint> expired() {
+        Instant cutoff = Instant.now().minus(retention);
+        return jobs.values().stream()
+                .filter(checkpoint -> checkpoint.getStatus() == JobCheckpoint.Status.FAILED)
+                .filter(checkpoint -> checkpoint.getUpdatedAt().isBefore(cutoff))
+                .toList();
+    }
+
+    public void delete(String jobId) {
+        jobs.remove(jobId);
+        if (!enabled) return;
+        try {
+            Files.deleteIfExists(entryPath(jobId));
+        } catch (IOException e) {
+            log.warn("Failed to delete checkpoint of job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes checkpoints of finished jobs past the retention. Finished jobs are not kept in memory,
+     * so every checkpoint file of an unknown job last written before the cutoff is one of them.
+     */
+    public void purgeFinished() {
+        if (!enabled || !Files.isDirectory(storeDir)) return;
+        Instant cutoff = Instant.now().minus(retention);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(storeDir, "*.json")) {
+            for (Path entry : entries) {
+                String jobId = entry.getFileName().toString().replaceFirst("\\.json$", "");
+                if (!jobs.containsKey(jobId) && Files.getLastModifiedTime(entry).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(entry);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to purge job store {}: {}", storeDir, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the unfinished jobs and deletes finished ones past the retention.
+     */
+    private void load() {
+        if (!Files.isDirectory(storeDir)) return;
+        Instant cutoff = Instant.now().minus(retention);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(storeDir, "*.json")) {
+            for (Path entry : entries) {
+                try {
+                    JobCheckpoint checkpoint = JobCheckpoint.fromJson(new JSONObject(Files.readString(entry)));
+                    if (checkpoint.getStatus() != JobCheckpoint.Status.DONE) {
+                        jobs.put(checkpoint.getJobId(), checkpoint);
+                    } else if (checkpoint.getUpdatedAt().isBefore(cutoff)) {
+                        delete(checkpoint.getJobId());
+                    }
+                } catch (Exception e) {
+                    log.warn("Ignoring unreadable checkpoint {}: {}", entry, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to read job store {}: {}", storeDir, e.getMessage());
+        }
+        log.info("Loaded {} unfinished job checkpoints from {}", jobs.size(), storeDir);
+    }
+
+    /**
+     * Writes then renames, so a crash never leaves a half-written file.
+     */
+    private void write(Path path, String content, String jobId) {
+        try {
+            Files.createDirectories(storeDir);
+            Path temp = path.resolveSibling(path.getFileName() + "." + UUID.randomUUID() + ".tmp");
+            Files.writeString(temp, content);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to store {} of job {}: {}", path.getFileName(), jobId, e.getMessage());
+        }
+    }
+
+    private Path entryPath(String jobId) {
+        return storeDir.resolve(jobId + ".json");
+    }
+}
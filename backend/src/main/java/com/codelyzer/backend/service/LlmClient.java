@@ -0,0 +1,264 @@
+package com.codelyzer.backend.service;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * Single long-lived client for the Cerebras chat completions endpoint.
+ * Connections are pooled and reused over HTTP/2, so requests skip the TLS handshake.
+ * Completions go through the shared {@link LlmGuard} for concurrency limiting, retries and hedging.
+ */
+@Service
+public class LlmClient {
+    private static final Logger log = LoggerFactory.getLogger(LlmClient.class);
+    private static final String CEREBRAS_ENDPOINT = "https://api.cerebras.ai/v1/chat/completions";
+    public static final String MODEL = "qwen-3-235b-a22b-instruct-2507";
+
+    private final String apiKey;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+    private final LlmGuard llmGuard;
+
+    public LlmClient(@Value("${cerebras.api.key}") String apiKey,
+                     @Value("${codelyzer.llm.connect-timeout-ms:5000}") long connectTimeoutMs,
+                     @Value("${codelyzer.llm.request-timeout-ms:120000}") long requestTimeoutMs,
+                     @Value("${codelyzer.llm.keep-alive-seconds:300}") long keepAliveSeconds,
+                     @Qualifier("llmHttpExecutor") ThreadPoolTaskExecutor llmHttpExecutor,
+                     LlmGuard llmGuard) {
+        this.apiKey = apiKey;
+        this.llmGuard = llmGuard;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        // read by the JDK connection pool when the first client is created
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout", String.valueOf(keepAliveSeconds));
+        }
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .executor(llmHttpExecutor)
+                .build();
+    }
+
+    /**
+     * Sends a one-token request to verify the endpoint and API key.
+     */
+    public boolean ping() {
+        try {
+            JSONObject requestBody = new JSONObject();
+            requestBody.put("model", MODEL);
+            requestBody.put("max_tokens", 1);
+            requestBody.put("messages", new JSONArray().put(message("system", "ping")));
+
+            HttpResponse<Void> response = httpClient.send(request(requestBody),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.warn("LLM health check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Sends the prompt as a system message and returns the content of the first choice.
+     */
+    public String complete(String prompt, int maxTokens) throws IOException, InterruptedException {
+        return complete(prompt, maxTokens, false);
+    }
+
+    /**
+     * Like {@link #complete(String, int)}, but asks the model for a JSON object.
+     */
+    public String completeJson(String prompt, int maxTokens) throws IOException, InterruptedException {
+        return complete(prompt, maxTokens, true);
+    }
+
+    private String complete(String prompt, int maxTokens, boolean json) throws IOException, InterruptedException {
+        JSONObject requestBody = new JSONObject();
+        requestBody.put("model", MODEL);
+        requestBody.put("max_tokens", maxTokens);
+        requestBody.put("temperature", 0.7);
+        requestBody.put("top_p", 0.8);
+        requestBody.put("stream", false);
+        if (json) {
+            requestBody.put("response_format", new JSONObject().put("type", "json_object"));
+        }
+        requestBody.put("messages", new JSONArray().put(message("system", prompt)));
+
+        HttpRequest request = request(requestBody);
+        HttpResponse<String> response = llmGuard.call(() -> llmGuard.send(
+                () -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())));
+
+        return new JSONObject(response.body())
+                .getJSONArray("choices")
+                .getJSONObject(0)
+                .getJSONObject("message")
+                .getString("content");
+    }
+
+    /**
+     * Streams the completion and returns the content as soon as {@code isComplete} accepts it,
+     * cancelling the rest of the generation. Fails when the token or time budget runs out first.
+     */
+    public String stream(String prompt, int maxTokens, Predicate<String> isComplete, Duration timeBudget)
+            throws IOException, InterruptedException {
+        JSONObject requestBody = new JSONObject();
+        requestBody.put("model", MODEL);
+        requestBody.put("max_tokens", maxTokens);
+        requestBody.put("temperature", 0.7);
+        requestBody.put("top_p", 0.8);
+        requestBody.put("stream", true);
+        requestBody.put("messages", new JSONArray().put(message("system", prompt)));
+
+        HttpRequest request = request(requestBody);
+        return llmGuard.call(() -> {
+            try (LlmGuard.Permit permit = llmGuard.acquire()) {
+                try {
+                    String content = streamOnce(request, isComplete, timeBudget);
+                    permit.success(false);
+                    return content;
+                } catch (IOException e) {
+                    permit.fail(e);
+                    throw e;
+                }
+            }
+        });
+    }
+
+    private String streamOnce(HttpRequest request, Predicate<String> isComplete, Duration timeBudget)
+            throws IOException, InterruptedException {
+        ContentSubscriber subscriber = new ContentSubscriber(isComplete);
+        CompletableFuture<HttpResponse<Void>> response = httpClient.sendAsync(request, info -> {
+            if (info.statusCode() != 200) {
+                long retryAfter = LlmGuard.retryAfterMillis(info.headers());
+                subscriber.result.completeExceptionally(LlmException.forStatus(info.statusCode(), retryAfter));
+                return HttpResponse.BodySubscribers.discarding();
+            }
+            return HttpResponse.BodySubscribers.fromLineSubscriber(subscriber);
+        });
+        response.whenComplete((ignored, error) -> {
+            if (error != null) subscriber.result.completeExceptionally(error);
+        });
+
+        try {
+            return subscriber.result.get(timeBudget.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // the block budget is spent, so a timeout is not retried
+            throw new LlmException("LLM stream exceeded its time budget of " + timeBudget.toMillis() + " ms",
+                    -1, false, -1);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io ? io : new IOException(cause.getMessage(), cause);
+        } finally {
+            subscriber.cancel();
+            response.cancel(true);
+        }
+    }
+
+    private HttpRequest request(JSONObject requestBody) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(CEREBRAS_ENDPOINT))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody.toString()))
+                .build();
+    }
+
+    private static JSONObject message(String role, String content) {
+        JSONObject message = new JSONObject();
+        message.put("role", role);
+        message.put("content", content);
+        return message;
+    }
+
+    /**
+     * Collects the content deltas of a server-sent event stream.
+     */
+    private static final class ContentSubscriber implements Flow.Subscriber<String> {
+        private final Predicate<String> isComplete;
+        private final StringBuilder content = new StringBuilder();
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+
+        private ContentSubscriber(Predicate<String> isComplete) {
+            this.isComplete = isComplete;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (result.isDone()) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (result.isDone() || !line.startsWith("data:")) return;
+            String data = line.substring("data:".length()).trim();
+            if (data.equals("[DONE]")) {
+                result.complete(content.toString());
+                return;
+            }
+            JSONObject choice;
+            try {
+                choice = new JSONObject(data).getJSONArray("choices").getJSONObject(0);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(new LlmException("Malformed LLM stream chunk: " + e.getMessage(), 200, false, -1));
+                cancel();
+                return;
+            }
+            JSONObject delta = choice.optJSONObject("delta");
+            if (delta != null) {
+                content.append(delta.optString("content", ""));
+            }
+            if (isComplete.test(content.toString())) {
+                result.complete(content.toString());
+                cancel();
+            } else if ("length".equals(choice.optString("finish_reason"))) {
+                result.completeExceptionally(new LlmException("LLM stream ran out of its token budget", 200, false, -1));
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            result.completeExceptionally(error);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(content.toString());
+        }
+
+        private void cancel() {
+            Flow.Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.codelyzer.backend.service;
+
+import java.io.IOException;
+
+/**
+ * Failed LLM call, with what the retry policy needs to know about it.
+ */
+public class LlmException extends IOException {
+    private final int status;
+    private final boolean retryable;
+    private final long retryAfterMillis;
+
+    public LlmException(String message, int status, boolean retryable, long retryAfterMillis) {
+        super(message);
+        this.status = status;
+        this.retryable = retryable;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * Error response; 429 and 5xx are worth retrying.
+     */
+    public static LlmException forStatus(int status, long retryAfterMillis) {
+        return new LlmException("LLM request failed with HTTP " + status, status,
+                status == 429 || status >= 500, retryAfterMillis);
+    }
+
+    /**
+     * HTTP status of the response, or -1 when no response arrived in time.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+
+    /**
+     * Delay the server asked for via {@code Retry-After}, or -1.
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -0,0 +1,259 @@
+package com.codelyzer.backend.service;
+
+import com.codelyzer.backend.logic.AdaptiveLimiter;
+import com.codelyzer.backend.logic.CircuitBreaker;
+import com.codelyzer.backend.logic.LatencyWindow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Shared admission control for LLM calls across all jobs.
+ * Calls pass a circuit breaker and an {@link AdaptiveLimiter} that shrinks on 429/5xx/timeouts and
+ * grows while calls succeed. Retryable failures are retried with full-jitter exponential backoff,
+ * honouring {@code Retry-After}, and non-streaming calls can be hedged once they run past a latency
+ * percentile of recent calls.
+ */
+@Component
+public class LlmGuard {
+    private static final Logger log = LoggerFactory.getLogger(LlmGuard.class);
+    // below this many samples latency percentiles are not trusted for hedging or slow-call signals
+    private static final int MIN_SAMPLES = 20;
+    private static final double SLOW_FACTOR = 3.0;
+
+    private final AdaptiveLimiter limiter;
+    private final CircuitBreaker breaker;
+    private final LatencyWindow latencies = new LatencyWindow(200);
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final boolean hedgeEnabled;
+    private final double hedgePercentile;
+
+    @FunctionalInterface
+    public interface Attempt<T> {
+        T run() throws IOException, InterruptedException;
+    }
+
+    public LlmGuard(@Value("${codelyzer.llm.limiter.initial-limit:8}") int initialLimit,
+                    @Value("${codelyzer.llm.limiter.min-limit:1}") int minLimit,
+                    @Value("${codelyzer.llm.limiter.max-limit:32}") int maxLimit,
+                    @Value("${codelyzer.llm.retry.max-attempts:4}") int maxAttempts,
+                    @Value("${codelyzer.llm.retry.base-delay-ms:500}") long baseDelayMs,
+                    @Value("${codelyzer.llm.retry.max-delay-ms:20000}") long maxDelayMs,
+                    @Value("${codelyzer.llm.hedge.enabled:false}") boolean hedgeEnabled,
+                    @Value("${codelyzer.llm.hedge.percentile:0.95}") double hedgePercentile,
+                    @Value("${codelyzer.llm.breaker.failure-threshold:5}") int failureThreshold,
+                    @Value("${codelyzer.llm.breaker.open-ms:30000}") long openMs) {
+        this.limiter = new AdaptiveLimiter(initialLimit, minLimit, maxLimit);
+        this.breaker = new CircuitBreaker(failureThreshold, openMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgePercentile = hedgePercentile;
+    }
+
+    /**
+     * Runs the attempt, retrying retryable failures with jittered backoff.
+     */
+    public <T> T call(Attempt<T> attempt) throws IOException, InterruptedException {
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.run();
+            } catch (IOException e) {
+                boolean retryable = !(e instanceof LlmException llm) || llm.isRetryable();
+                if (!retryable || i >= maxAttempts) throw e;
+                long retryAfter = e instanceof LlmException llm ? llm.getRetryAfterMillis() : -1;
+                long delay = backoffMillis(i, retryAfter);
+                log.info("LLM call failed ({}), retry {} of {} in {} ms", e.getMessage(), i, maxAttempts - 1, delay);
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * Sends one request under a permit, hedging it when enabled and the request is slow.
+     * @throws LlmException for non-200 responses
+     */
+    public <T> HttpResponse<T> send(Supplier<CompletableFuture<HttpResponse<T>>> sender)
+            throws IOException, InterruptedException {
+        try (Permit permit = acquire()) {
+            CompletableFuture<HttpResponse<T>> primary = sender.get();
+            CompletableFuture<HttpResponse<T>> hedge = null;
+            try {
+                HttpResponse<T> response;
+                long hedgeAfter = hedgeDelayMillis();
+                if (hedgeAfter < 0) {
+                    response = primary.get();
+                } else {
+                    try {
+                        response = primary.get(hedgeAfter, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // the hedge only runs if the limiter has room; it never waits for a permit
+                        if (limiter.tryAcquire()) {
+                            hedge = sender.get();
+                            hedge.whenComplete((ignored, error) -> limiter.release(AdaptiveLimiter.Signal.IGNORED));
+                            response = first(primary, hedge);
+                        } else {
+                            response = primary.get();
+                        }
+                    }
+                }
+                if (response.statusCode() != 200) {
+                    throw LlmException.forStatus(response.statusCode(), retryAfterMillis(response.headers()));
+                }
+                permit.success(true);
+                return response;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                IOException failure = cause instanceof IOException io ? io : new IOException(cause.getMessage(), cause);
+                permit.fail(failure);
+                throw failure;
+            } catch (LlmException e) {
+                permit.fail(e);
+                throw e;
+            } finally {
+                primary.cancel(true);
+                if (hedge != null) hedge.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Admits one call. The limiter is acquired before the breaker is asked, so a caller interrupted
+     * while waiting for the limiter never holds the breaker's half-open trial.
+     * @throws LlmException if the circuit breaker is open
+     */
+    public Permit acquire() throws LlmException, InterruptedException {
+        limiter.acquire();
+        if (!breaker.allowRequest()) {
+            limiter.release(AdaptiveLimiter.Signal.IGNORED);
+            throw new LlmException("LLM circuit breaker is open", -1, false, -1);
+        }
+        return new Permit();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limit", limiter.getLimit());
+        stats.put("inFlight", limiter.getInFlight());
+        stats.put("breaker", breaker.getState().name());
+        stats.put("p50Ms", TimeUnit.NANOSECONDS.toMillis(Math.max(0, latencies.percentile(0.5))));
+        stats.put("p95Ms", TimeUnit.NANOSECONDS.toMillis(Math.max(0, latencies.percentile(0.95))));
+        return stats;
+    }
+
+    long backoffMillis(int attempt, long retryAfterMillis) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        long jittered = ThreadLocalRandom.current().nextLong(Math.max(1, ceiling) + 1);
+        return Math.max(jittered, retryAfterMillis);
+    }
+
+    private long hedgeDelayMillis() {
+        if (!hedgeEnabled || latencies.count() < MIN_SAMPLES) return -1;
+        return TimeUnit.NANOSECONDS.toMillis(latencies.percentile(hedgePercentile));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> HttpResponse<T> first(CompletableFuture<HttpResponse<T>> a, CompletableFuture<HttpResponse<T>> b)
+            throws ExecutionException, InterruptedException {
+        return (HttpResponse<T>) CompletableFuture.anyOf(a, b).get();
+    }
+
+    /**
+     * Reads {@code Retry-After}, given either in seconds or as an HTTP date.
+     * @return milliseconds to wait, or -1 when the header is absent or malformed
+     */
+    static long retryAfterMillis(HttpHeaders headers) {
+        return headers.firstValue("Retry-After").map(value -> {
+            String trimmed = value.trim();
+            try {
+                return Math.max(0, Long.parseLong(trimmed) * 1000);
+            } catch (NumberFormatException e) {
+                // not a number, so an HTTP date
+            }
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(Instant.now(), date.toInstant()).toMillis());
+            } catch (DateTimeParseException e) {
+                return -1L;
+            }
+        }).orElse(-1L);
+    }
+
+    /**
+     * One admitted call. Report how it went with {@link #success} or {@link #fail}; closing an
+     * unreported permit releases it without adapting the limit.
+     */
+    public final class Permit implements AutoCloseable {
+        private final long start = System.nanoTime();
+        private boolean released;
+
+        private Permit() {
+        }
+
+        /**
+         * @param recordLatency false for calls whose duration depends on the output size, such as streams
+         */
+        public void success(boolean recordLatency) {
+            if (released) return;
+            AdaptiveLimiter.Signal signal = AdaptiveLimiter.Signal.SUCCESS;
+            if (recordLatency) {
+                long latency = System.nanoTime() - start;
+                if (latencies.count() >= MIN_SAMPLES && latency > SLOW_FACTOR * latencies.percentile(0.1)) {
+                    signal = AdaptiveLimiter.Signal.SLOW;
+                }
+                latencies.add(latency);
+            }
+            breaker.recordSuccess();
+            release(signal);
+        }
+
+        /**
+         * Overload (429, 5xx, timeouts, I/O errors) shrinks the limit and counts against the breaker;
+         * other rejections say nothing about the provider's health.
+         */
+        public void fail(IOException failure) {
+            if (released) return;
+            int status = failure instanceof LlmException llm ? llm.getStatus() : -1;
+            if (status == -1 || status == 429 || status >= 500) {
+                breaker.recordFailure();
+                release(AdaptiveLimiter.Signal.OVERLOADED);
+            } else {
+                breaker.recordIgnored();
+                release(AdaptiveLimiter.Signal.IGNORED);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (released) return;
+            breaker.recordIgnored();
+            release(AdaptiveLimiter.Signal.IGNORED);
+        }
+
+        private void release(AdaptiveLimiter.Signal signal) {
+            released = true;
+            limiter.release(signal);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.codelyzer.backend.service;
+
+import com.codelyzer.backend.entity.JobCheckpoint;
+import com.codelyzer.backend.entity.JobContext;
+import com.codelyzer.backend.logic.FileEditor;
+import com.codelyzer.backend.logic.FileManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fix → commit → push/PR stage of a job, run as a bounded producer/consumer pipeline.
+ * LLM workers fix files into a bounded queue, commit workers turn them into local branches,
+ * and a publisher pushes branches in batches of one push each and opens their pull requests.
+ * While one file is being committed and published the next one is already being fixed.
+ * The publisher lingers briefly after the first ready branch so that the branches committed
+ * meanwhile share its push: a longer linger means fewer pushes but later pull requests, and a
+ * zero linger pushes every branch on its own as soon as it is committed.
+ * Every fixed file, pushed branch and opened pull request is checkpointed in the {@link JobStore},
+ * so a resumed job only does the work that is still missing.
+ * Workers run on the shared {@code pipelineExecutor}; a job waits for a pipeline slot, so the
+ * number of worker threads stays bounded no matter how many jobs run.
+ */
+@Service
+public class PullRequestPipeline {
+    private static final Logger log = LoggerFactory.getLogger(PullRequestPipeline.class);
+    private static final String COMMIT_MESSAGE = "Codelyzer was here ツ";
+    private static final String PR_TITLE = "Static Analysis Problem Solved by Codelyzer";
+    private static final String PR_BODY = "Automated code quality improvements by Codelyzer";
+
+    private static final FileTask NO_MORE_FILES = new FileTask(null, null, false);
+    private static final Branch NO_MORE_BRANCHES = new Branch(null, null);
+
+    final String basePath = new File("").getAbsolutePath();
+
+    private final FileEditor fileEditor;
+    private final GitService gitService;
+    private final GithubService githubService;
+    private final JobStore jobStore;
+    private final ThreadPoolTaskExecutor prExecutor;
+    private final ThreadPoolTaskExecutor pipelineExecutor;
+    private final Semaphore pipelineSlots;
+    private final int fixWorkers;
+    private final int commitWorkers;
+    private final int fixedQueueSize;
+    private final int committedQueueSize;
+    private final long pushLingerMs;
+
+    public PullRequestPipeline(FileEditor fileEditor, GitService gitService, GithubService githubService,
+                               JobStore jobStore,
+                               @Qualifier("prExecutor") ThreadPoolTaskExecutor prExecutor,
+                               @Qualifier("pipelineExecutor") ThreadPoolTaskExecutor pipelineExecutor,
+                               @Value("${codelyzer.pr.pipeline.max-jobs:4}") int maxJobs,
+                               @Value("${codelyzer.pr.pipeline.fix-workers:3}") int fixWorkers,
+                               @Value("${codelyzer.pr.pipeline.commit-workers:1}") int commitWorkers,
+                               @Value("${codelyzer.pr.pipeline.fixed-queue-size:4}") int fixedQueueSize,
+                               @Value("${codelyzer.pr.pipeline.committed-queue-size:8}") int committedQueueSize,
+                               @Value("${codelyzer.pr.pipeline.push-linger-ms:2000}") long pushLingerMs) {
+        this.fileEditor = fileEditor;
+        this.gitService = gitService;
+        this.githubService = githubService;
+        this.jobStore = jobStore;
+        this.prExecutor = prExecutor;
+        this.pipelineExecutor = pipelineExecutor;
+        // pipelineExecutor has a thread for every worker of maxJobs pipelines, so an admitted
+        // pipeline never waits for its own workers to be scheduled
+        this.pipelineSlots = new Semaphore(Math.max(1, maxJobs), true);
+        this.fixWorkers = Math.max(1, fixWorkers);
+        this.commitWorkers = Math.max(1, commitWorkers);
+        this.fixedQueueSize = Math.max(1, fixedQueueSize);
+        this.committedQueueSize = Math.max(1, committedQueueSize);
+        this.pushLingerMs = Math.max(0, pushLingerMs);
+    }
+
+    /**
+     * Runs every file through the pipeline and waits until all pull requests were attempted.
+     * Files the checkpoint already has a pull request for are skipped, pushed branches only get
+     * their pull request, and fixed files are committed without asking the LLM again.
+     * @return URLs of the pull requests that were opened, including those of earlier attempts
+     */
+    public List<String> run(JobContext context, List<FileManager> files, String repoDir, String forkOwner,
+                            JobCheckpoint checkpoint) throws InterruptedException {
+        String workspace = context.getWorkspaceName();
+        BlockingQueue<FileTask> pending = new LinkedBlockingQueue<>();
+        List<Branch> pushed = new ArrayList<>();
+        List<String> pullRequests = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < files.size(); i++) {
+            FileManager file = files.get(i);
+            String filePath = file.getFilePath();
+            String fixedFile = checkpoint.getFixedFile(filePath);
+            if (checkpoint.getPullRequest(filePath) != null) {
+                pullRequests.add(checkpoint.getPullRequest(filePath));
+            } else if (checkpoint.getBranch(filePath) != null) {
+                pushed.add(new Branch(filePath, checkpoint.getBranch(filePath)));
+            } else if (fixedFile != null && Files.exists(Path.of(fixedFile))) {
+                pending.add(new FileTask(file, fixedFile, true));
+            } else {
+                String tempFilePath = new File(basePath, "backend/temp/files/" + workspace + "-" + i + ".java")
+                        .getAbsolutePath();
+                pending.add(new FileTask(file, tempFilePath, false));
+            }
+        }
+        if (pending.size() < files.size()) {
+            log.info("Resuming pipeline for {}: {} pull requests open, {} branches pushed, {} files left",
+                    workspace, pullRequests.size(), pushed.size(), pending.size());
+        }
+        BlockingQueue<FileTask> fixed = new ArrayBlockingQueue<>(fixedQueueSize);
+        BlockingQueue<Branch> committed = new ArrayBlockingQueue<>(committedQueueSize);
+        List<CompletableFuture<Void>> openedPullRequests = Collections.synchronizedList(new ArrayList<>());
+        // file path → why it did not get a pull request
+        Map<String, String> failures = new ConcurrentHashMap<>();
+
+        CountDownLatch fixersDone = new CountDownLatch(fixWorkers);
+        CountDownLatch committersDone = new CountDownLatch(commitWorkers);
+        List<Future<?>> workers = new ArrayList<>();
+        pipelineSlots.acquire();
+        try {
+            for (int i = 0; i < fixWorkers; i++) {
+                workers.add(pipelineExecutor.submit(() -> fixFiles(pending, fixed, checkpoint, failures,
+                        fixersDone)));
+            }
+            for (int i = 0; i < commitWorkers; i++) {
+                workers.add(pipelineExecutor.submit(() -> commitFiles(fixed, committed, repoDir,
+                        context.getBaseBranch(), failures, committersDone)));
+            }
+            workers.add(pipelineExecutor.submit(() -> publishBranches(committed, pushed, context, repoDir,
+                    forkOwner, checkpoint, pullRequests, failures, openedPullRequests)));
+
+            // close each stage once the one before it has drained
+            fixersDone.await();
+            for (int i = 0; i < commitWorkers; i++) {
+                fixed.put(NO_MORE_FILES);
+            }
+            committersDone.await();
+            committed.put(NO_MORE_BRANCHES);
+
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    log.error("Pipeline worker for {} failed: {}", workspace, e.getCause().getMessage(), e);
+                }
+            }
+            CompletableFuture.allOf(openedPullRequests.toArray(new CompletableFuture[0])).join();
+        } finally {
+            workers.forEach(worker -> worker.cancel(true));
+            pipelineSlots.release();
+        }
+        if (failures.isEmpty()) {
+            log.info("Pipeline for {} opened {} pull requests", workspace, pullRequests.size());
+        } else {
+            log.warn("Pipeline for {} opened {} pull requests, {} files failed: {}",
+                    workspace, pullRequests.size(), failures.size(), failures);
+        }
+        return new ArrayList<>(pullRequests);
+    }
+
+    private static void fail(Map<String, String> failures, String filePath, String step, Exception e) {
+        log.error("Failed to {} {}: {}", step, filePath, e.getMessage(), e);
+        failures.put(filePath, step + " failed: " + e.getMessage());
+    }
+
+    private void fixFiles(BlockingQueue<FileTask> pending, BlockingQueue<FileTask> fixed,
+                          JobCheckpoint checkpoint, Map<String, String> failures, CountDownLatch done) {
+        try {
+            FileTask task;
+            while ((task = pending.poll()) != null) {
+                try {
+                    if (!task.alreadyFixed) {
+                        fileEditor.processFile(task.fileManager, task.tempFilePath, false);
+                        checkpoint.recordFixed(task.fileManager.getFilePath(), task.tempFilePath);
+                        jobStore.save(checkpoint);
+                    }
+                    fixed.put(task);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    fail(failures, task.fileManager.getFilePath(), "fix", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            done.countDown();
+        }
+    }
+
+    private void commitFiles(BlockingQueue<FileTask> fixed, BlockingQueue<Branch> committed, String repoDir,
+                             String baseBranch, Map<String, String> failures, CountDownLatch done) {
+        try {
+            FileTask task;
+            while ((task = fixed.take()) != NO_MORE_FILES) {
+                String filePath = task.fileManager.getFilePath();
+                String branch;
+                try {
+                    branch = gitService.prepareBranch(repoDir, filePath, task.tempFilePath, COMMIT_MESSAGE,
+                            baseBranch);
+                } catch (RuntimeException e) {
+                    fail(failures, filePath, "commit", e);
+                    continue;
+                }
+                if (branch != null) {
+                    committed.put(new Branch(filePath, branch));
+                } else {
+                    failures.put(filePath, "nothing to commit or git failed");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            done.countDown();
+        }
+    }
+
+    private void publishBranches(BlockingQueue<Branch> committed, List<Branch> pushed, JobContext context,
+                                 String repoDir, String forkOwner, JobCheckpoint checkpoint,
+                                 List<String> pullRequests, Map<String, String> failures,
+                                 List<CompletableFuture<Void>> openedPullRequests) {
+        try {
+            // branches pushed by an earlier attempt go first; pushing them again is a no-op
+            List<Branch> batch = new ArrayList<>(pushed);
+            boolean finished = false;
+            while (!finished) {
+                // wait for one branch, then collect the others until the linger expires or the
+                // commit workers are drained
+                if (batch.isEmpty()) {
+                    batch.add(committed.take());
+                }
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pushLingerMs);
+                committed.drainTo(batch);
+                while (!batch.contains(NO_MORE_BRANCHES)) {
+                    Branch next = committed.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                    committed.drainTo(batch);
+                }
+                finished = batch.remove(NO_MORE_BRANCHES);
+                List<String> names = batch.stream().map(branch -> branch.name).toList();
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                boolean pushedBatch;
+                try {
+                    pushedBatch = gitService.pushBranches(repoDir, names);
+                } catch (RuntimeException e) {
+                    log.error("Failed to push {}: {}", names, e.getMessage(), e);
+                    pushedBatch = false;
+                }
+                if (!pushedBatch) {
+                    // keep draining, a dead publisher would block the commit workers on a full queue
+                    batch.forEach(branch -> failures.put(branch.filePath, "push failed"));
+                    batch = new ArrayList<>();
+                    continue;
+                }
+
+                for (Branch branch : batch) {
+                    checkpoint.recordPushed(branch.filePath, branch.name);
+                    try {
+                        openedPullRequests.add(CompletableFuture.runAsync(
+                                () -> openPullRequest(branch, context, forkOwner, checkpoint, pullRequests, failures),
+                                prExecutor));
+                    } catch (RuntimeException e) {
+                        fail(failures, branch.filePath, "open pull request for", e);
+                    }
+                }
+                jobStore.save(checkpoint);
+                batch = new ArrayList<>();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void openPullRequest(Branch branch, JobContext context, String forkOwner, JobCheckpoint checkpoint,
+                                 List<String> pullRequests, Map<String, String> failures) {
+        String repoName = context.getRepoName();
+        try {
+            String url = githubService.createCrossForkPR(forkOwner, repoName, context.getRepoOwner(),
+                    repoName, branch.name, context.getBaseBranch(), PR_TITLE, PR_BODY);
+            if (url != null) {
+                pullRequests.add(url);
+                checkpoint.recordPullRequest(branch.filePath, url);
+                jobStore.save(checkpoint);
+            } else {
+                failures.put(branch.filePath, "pull request was not created");
+            }
+        } catch (RuntimeException e) {
+            fail(failures, branch.filePath, "open pull request for", e);
+        }
+    }
+
+    private static final class FileTask {
+        private final FileManager fileManager;
+        private final String tempFilePath;
+        private final boolean alreadyFixed;
+
+        private FileTask(FileManager fileManager, String tempFilePath, boolean alreadyFixed) {
+            this.fileManager = fileManager;
+            this.tempFilePath = tempFilePath;
+            this.alreadyFixed = alreadyFixed;
+        }
+    }
+
+    private static final class Branch {
+        private final String filePath;
+        private final String name;
+
+        private Branch(String filePath, String name) {
+            this.filePath = filePath;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.codelyzer.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Local cache of bare mirrors, one per repository URL.
+ * A mirror is cloned once, refreshed with an incremental fetch on every later use, and job
+ * checkouts are cloned from it locally (hard-linked objects, or shallow when configured and the
+ * checkout is never pushed from).
+ * Mirrors are evicted least-recently-used first once the cache exceeds its size limit. The size of
+ * a mirror is measured when it is refreshed, so eviction never walks the whole cache.
+ */
+@Service
+public class RepoCacheService {
+    private static final Logger log = LoggerFactory.getLogger(RepoCacheService.class);
+    final String basePath = new File("").getAbsolutePath();
+
+    private final boolean enabled;
+    private final boolean shallow;
+    private final long maxBytes;
+    private final Path mirrorsDir;
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> inUse = new ConcurrentHashMap<>();
+    // mirror key → bytes on disk and last use, as of its last refresh
+    private final Map<String, Long> sizes = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastUsed = new ConcurrentHashMap<>();
+
+    public RepoCacheService(@Value("${codelyzer.clone.mirror-cache.enabled:true}") boolean enabled,
+                            @Value("${codelyzer.clone.shallow:false}") boolean shallow,
+                            @Value("${codelyzer.clone.mirror-cache.max-bytes:5368709120}") long maxBytes,
+                            @Value("${codelyzer.clone.mirror-cache.dir:backend/temp/mirrors}") String mirrorsDir) {
+        this.enabled = enabled;
+        this.shallow = shallow;
+        this.maxBytes = maxBytes;
+        this.mirrorsDir = Paths.get(basePath).resolve(mirrorsDir);
+        if (enabled) {
+            load();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Updates (or creates) the mirror of {@code repoUrl} and materializes a working checkout
+     * in {@code checkoutDir} whose origin points back at {@code repoUrl}.
+     * @param pushed whether branches will be pushed from the checkout; such checkouts are never
+     *               shallow, since a shallow history cannot be pushed to a fresh remote branch reliably
+     */
+    public boolean checkout(String repoUrl, Path checkoutDir, boolean pushed) {
+        String key = mirrorKey(repoUrl);
+        Path mirror = mirrorsDir.resolve(key + ".git");
+        inUse.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        try {
+            synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+                refreshMirror(repoUrl, mirror);
+                sizes.put(key, sizeOf(mirror));
+                lastUsed.put(key, System.currentTimeMillis());
+            }
+
+            deleteRecursively(checkoutDir);
+            Files.createDirectories(checkoutDir.getParent());
+            String parent = checkoutDir.getParent().toString();
+            if (shallow && !pushed) {
+                GitService.runGit(parent, "clone", "--depth", "1", mirror.toUri().toString(), checkoutDir.toString());
+            } else {
+                GitService.runGit(parent, "clone", mirror.toString(), checkoutDir.toString());
+            }
+            GitService.runGit(checkoutDir.toString(), "remote", "set-url", "origin", repoUrl);
+            log.info("Checked out {} from mirror {}", repoUrl, mirror);
+            return true;
+        } catch (Exception e) {
+            log.error("Failed to check out {} from mirror cache: {}", repoUrl, e.getMessage(), e);
+            return false;
+        } finally {
+            inUse.get(key).decrementAndGet();
+            evictIfNeeded();
+        }
+    }
+
+    private void refreshMirror(String repoUrl, Path mirror) throws IOException, InterruptedException {
+        if (Files.isDirectory(mirror)) {
+            GitService.runGit(mirror.toString(), "remote", "update", "--prune");
+            log.info("Fetched updates into mirror {}", mirror);
+        } else {
+            Files.createDirectories(mirrorsDir);
+            GitService.runGit(mirrorsDir.toString(), "clone", "--mirror", repoUrl, mirror.toString());
+            log.info("Created mirror {} for {}", mirror, repoUrl);
+        }
+        Files.setLastModifiedTime(mirror, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    /**
+     * Measures the mirrors already on disk once, so later checkouts only measure their own mirror.
+     */
+    private void load() {
+        if (!Files.isDirectory(mirrorsDir)) return;
+        try (Stream<Path> entries = Files.list(mirrorsDir)) {
+            for (Path mirror : entries.filter(Files::isDirectory).toList()) {
+                String key = mirror.getFileName().toString().replaceFirst("\\.git$", "");
+                sizes.put(key, sizeOf(mirror));
+                lastUsed.put(key, Files.getLastModifiedTime(mirror).toMillis());
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to read mirror cache {}: {}", mirrorsDir, e.getMessage());
+        }
+    }
+
+    /**
+     * Removes least-recently-used mirrors that are not in use until the cache fits its limit.
+     * A mirror is deleted under its own lock and only if no checkout registered for it meanwhile;
+     * a checkout that registers later waits for the lock and clones the mirror again.
+     */
+    private synchronized void evictIfNeeded() {
+        long total = sizes.values().stream().mapToLong(Long::longValue).sum();
+        if (total <= maxBytes) return;
+
+        List<String> keys = new ArrayList<>(sizes.keySet());
+        keys.sort(Comparator.comparing(key -> lastUsed.getOrDefault(key, 0L)));
+        for (String key : keys) {
+            if (total <= maxBytes) break;
+            Path mirror = mirrorsDir.resolve(key + ".git");
+            synchronized (locks.computeIfAbsent(key, k -> new Object())) {
+                AtomicInteger users = inUse.get(key);
+                if (users != null && users.get() > 0) continue;
+                try {
+                    deleteRecursively(mirror);
+                } catch (IOException | UncheckedIOException e) {
+                    log.warn("Failed to evict mirror {}: {}", mirror, e.getMessage());
+                    continue;
+                }
+                Long size = sizes.remove(key);
+                lastUsed.remove(key);
+                total -= size != null ? size : 0;
+                log.info("Evicted mirror {} ({} bytes)", mirror, size);
+            }
+        }
+    }
+
+    /**
+     * Readable {@code owner__repo} followed by a short hash of the normalized URL, so the same path
+     * on different hosts gets different mirrors. Credentials, letter case of the host, a trailing
+     * slash and {@code .git} do not change the key.
+     */
+    static String mirrorKey(String repoUrl) {
+        String cleaned = repoUrl.trim().replaceAll("/+$", "");
+        cleaned = cleaned.endsWith(".git") ? cleaned.substring(0, cleaned.length() - 4) : cleaned;
+        String[] parts = cleaned.split("/");
+        String key = parts.length >= 2 ? parts[parts.length - 2] + "__" + parts[parts.length - 1] : cleaned;
+        return key.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + shortHash(normalize(cleaned));
+    }
+
+    private static String normalize(String url) {
+        try {
+            URI uri = new URI(url);
+            if (uri.getHost() == null) return url;
+            return uri.getScheme() + "://" + uri.getHost().toLowerCase(Locale.ROOT)
+                    + (uri.getPort() != -1 ? ":" + uri.getPort() : "") + uri.getPath();
+        } catch (URISyntaxException e) {
+            return url;
+        }
+    }
+
+    private static String shortHash(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static long sizeOf(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.mapToLong(path -> {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    return attributes.isRegularFile() ? attributes.size() : 0;
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -1,118 +1,83 @@
 package com.codelyzer.backend.service;
 
-import com.codelyzer.backend.logic.FileEditor;
+import com.codelyzer.backend.entity.AnalysisReport;
+import com.codelyzer.backend.entity.JobCheckpoint;
+import com.codelyzer.backend.entity.JobContext;
+import com.codelyzer.backend.entity.RepoMetadata;
+import com.codelyzer.backend.logic.CheckstyleReportParser;
 import com.codelyzer.backend.logic.FileManager;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.json.XML;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 
-import static com.codelyzer.backend.service.GitService.commitOnNewBranch;
-
 @Service
 public class ScriptService {
     private static final Logger log = LoggerFactory.getLogger(ScriptService.class);
     final String basePath = new File("").getAbsolutePath();
-    private String mainRepoURL;
-    private String forkRepoURL;
-    private String repoName;
-    private String repoOwner;
-    private final String commit = "Codelyzer was here ツ";
-    private final String title = "Static Analysis Problem Solved by Codelyzer";
-    private final String body = "Automated code quality improvements by Codelyzer";
-
-
     private final String forkOwner = "Codelyzer-Bot";
 
-    private final GithubService githubService;
+    private final GitService gitService;
 
-    @Value("${cerebras.api.key}")
-    private String apiKey;
+    private final LlmClient llmClient;
 
-    @Value("${github.bot.token}")
-    private String gitHubToken;
+    private final CheckstyleService checkstyleService;
 
-    public ScriptService(GitService gitService, GithubService githubService) {
-        this.githubService = githubService;
-    }
+    private final RepoCacheService repoCacheService;
 
-    public void setForkRepoURL(String forkRepoURL) {
-        this.forkRepoURL = forkRepoURL;
-    }
+    private final PullRequestPipeline pullRequestPipeline;
 
-    public void setMainRepoURL(String mainRepoURL) {
-        this.mainRepoURL = mainRepoURL;
-    }
+    @Value("${github.bot.token}")
+    private String gitHubToken;
 
-    public void setRepoOwner() {
-            String cleanedUrl = mainRepoURL.endsWith(".git")
-                    ? mainRepoURL.substring(0, mainRepoURL.length() - 4)
-                    : mainRepoURL;
-            String[] parts = cleanedUrl.split("/");
-            repoOwner = parts[parts.length - 2];
-    }
+    @Value("${codelyzer.analysis.write-json:false}")
+    private boolean jsonReportEnabled;
 
-    public void setRepoNameFromUrl() {
-        String cleanedUrl = mainRepoURL.endsWith(".git") ? mainRepoURL
-                .substring(0, mainRepoURL.length() - 4) : mainRepoURL;
+    @Value("${codelyzer.analysis.engine:embedded}")
+    private String analysisEngine;
 
-        String[] parts = cleanedUrl.split("/");
-        repoName = parts[parts.length - 1];
+    public ScriptService(GitService gitService, LlmClient llmClient, CheckstyleService checkstyleService,
+                         RepoCacheService repoCacheService, PullRequestPipeline pullRequestPipeline) {
+        this.gitService = gitService;
+        this.llmClient = llmClient;
+        this.checkstyleService = checkstyleService;
+        this.repoCacheService = repoCacheService;
+        this.pullRequestPipeline = pullRequestPipeline;
     }
 
-
-
     /**
-     * Checks if the repository exists by sending a HEAD request.
+     * Directory the job's fork is checked out to.
      */
-    public boolean isRepoExists() {
-        if (mainRepoURL == null || mainRepoURL.isBlank()) {
-            log.warn("Repository URL is not set");
-            return false;
-        }
-
-        try {
-            URL url = new URL(mainRepoURL);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("HEAD");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
-
-            int responseCode = connection.getResponseCode();
-            connection.disconnect();
-            boolean exists = responseCode == 200;
-            log.info("Checked repo existence for {}: {}", mainRepoURL, exists);
-            return exists;
-
-        } catch (Exception e) {
-            log.error("Error while checking repository existence: {}", mainRepoURL, e);
-            return false;
-        }
+    public Path cloneDir(JobContext context) {
+        return Paths.get(basePath, "backend/temp/repos", context.getWorkspaceName());
     }
 
     /**
-     * Runs the clone_repo.sh script to clone the repository.
+     * Materializes the fork checkout for the job, from the local mirror cache when enabled,
+     * otherwise by running the clone_repo.sh script.
      */
-    public boolean makeClone() {
+    public boolean makeClone(JobContext context) {
+        String forkRepoURL = context.getForkRepoURL();
+        if (repoCacheService.isEnabled()) {
+            // patch branches are pushed from this checkout, so it is never shallow
+            return repoCacheService.checkout(forkRepoURL, cloneDir(context), true);
+        }
         try {
             File scriptFile = new File(basePath, "backend/scripts/clone_repo.sh");
             String scriptPath = scriptFile.getAbsolutePath();
 
             log.info("Running clone script: {}", scriptPath);
 
-            ProcessBuilder pb = new ProcessBuilder("sh", scriptPath,forkRepoURL);
+            ProcessBuilder pb = new ProcessBuilder("sh", scriptPath, forkRepoURL,
+                    context.getWorkspaceName());
             pb.redirectErrorStream(true); // merge stdout and stderr
 
             Process process = pb.start();
@@ -140,7 +105,43 @@ public class ScriptService {
         }
     }
 
-    public boolean doAnalysis() {
+    /**
+     * Runs Checkstyle over the cloned repository and returns the collected violations,
+     * or null when the analysis failed.
+     */
+    public AnalysisReport doAnalysis(JobContext context) {
+        if ("script".equals(analysisEngine)) {
+            return runAnalysisScript(context) ? readXmlReport(context) : null;
+        }
+        Path repoDir = cloneDir(context);
+        try {
+            AnalysisReport report = checkstyleService.audit(repoDir);
+            log.info("Analysis done successfully: {} ({} violations in {} files)",
+                    context.getWorkspaceName(), report.getViolationCount(), report.getFileCount());
+            return report;
+        } catch (Exception e) {
+            log.error("Error while analysing {}: {}", repoDir, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private AnalysisReport readXmlReport(JobContext context) {
+        Path xmlPath = Paths.get(basePath, "backend/temp/analysis", context.getWorkspaceName() + ".xml");
+        AnalysisReport report = new AnalysisReport();
+        try {
+            CheckstyleReportParser.parse(xmlPath, (filePath, violations) -> {
+                report.addViolations(filePath, violations);
+                return true;
+            });
+            return report;
+        } catch (Exception e) {
+            log.error("Failed to read analysis report {}: {}", xmlPath, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private boolean runAnalysisScript(JobContext context) {
+        String repoName = context.getWorkspaceName();
         try{
             File scriptFile = new File(basePath, "backend/scripts/run_analysis.sh");
             String scriptPath = scriptFile.getAbsolutePath();
@@ -174,87 +175,39 @@ public class ScriptService {
         }
     }
 
-        /**
-         * Converts an XML file to a JSON file with exception handling.
-         */
-        public void convertXmlFileToJsonFile() {
-            String xmlFilePath = new File(basePath, "backend/temp/analysis/" + repoName + ".xml")
-                    .getAbsolutePath();
-            String jsonFilePath = new File(basePath, "backend/temp/analysis/" + repoName + ".json")
-                    .getPath();
-            try {
-                // Read XML file content
-                Path xmlPath = Paths.get(xmlFilePath);
-                String xmlContent = Files.readString(xmlPath);
-
-                // Convert XML to JSON
-                JSONObject jsonObj = XML.toJSONObject(xmlContent);
-                String jsonString = jsonObj.toString(2); // pretty-print with 2 spaces
-
-                // Write JSON to file
-                Path jsonPath = Paths.get(jsonFilePath);
-                Files.createDirectories(jsonPath.getParent()); // create parent dirs if not exist
-                Files.writeString(jsonPath, jsonString);
-
-                System.out.println("JSON file saved to: " + jsonFilePath);
-
-            } catch (Exception e) {
-                System.err.println("Unexpected error during XML to JSON conversion: " + e.getMessage());
-                e.printStackTrace();
-            }
+    /**
+     * Writes the analysis report as JSON next to the XML report.
+     * Only runs when {@code codelyzer.analysis.write-json} is enabled; the pipeline itself
+     * passes the report along in memory.
+     */
+    public void writeJsonReport(JobContext context, AnalysisReport report) {
+        if (!jsonReportEnabled) {
+            return;
         }
-
-        // Example usage
-
-
+        Path jsonPath = Paths.get(basePath, "backend/temp/analysis", context.getWorkspaceName() + ".json");
+        try {
+            Files.createDirectories(jsonPath.getParent()); // create parent dirs if not exist
+            Files.writeString(jsonPath, report.toJson().toString(2)); // pretty-print with 2 spaces
+            log.info("JSON report saved to: {}", jsonPath);
+        } catch (IOException e) {
+            log.error("Failed to write JSON report {}: {}", jsonPath, e.getMessage(), e);
+        }
+    }
 
     /**
-     * Fetches the last 10 commits from a GitHub repository URL and saves them as a JSON file.
-     *
-     *
-     * @throws IOException if network or file errors occur
+     * Saves the latest commits from the job's repository metadata as a JSON file.
+     * Failures are logged; the commits file is informational only.
      */
-    public void fetchCommits() {
+    public void fetchCommits(JobContext context) {
         try {
 
-            // GitHub API URL
-            String apiUrl = String.format("https://api.github.com/repos/%s/%s/commits?per_page=10", repoOwner, repoName);
-
-            // HTTP request
-            HttpURLConnection connection = (HttpURLConnection) new URL(apiUrl).openConnection();
-            connection.setRequestMethod("GET");
-            connection.setRequestProperty("Accept", "application/vnd.github+json");
-            connection.setConnectTimeout(5000);
-            connection.setReadTimeout(5000);
-
-            int code = connection.getResponseCode();
-            InputStream is = (code >= 200 && code < 300) ? connection.getInputStream() : connection.getErrorStream();
-
-            StringBuilder sb = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-                String line;
-                while ((line = reader.readLine()) != null) sb.append(line);
-            }
-
-            if (code != 200) {
-                System.err.println("Failed to fetch commits: HTTP " + code + " - " + sb);
-                return;
-            }
-
-            // Parse commits
-            JSONArray commitsArray = new JSONArray(sb.toString());
             JSONArray outputArray = new JSONArray();
-
-            for (int i = 0; i < commitsArray.length(); i++) {
-                JSONObject c = commitsArray.getJSONObject(i);
-                JSONObject commitInfo = c.optJSONObject("commit");
-                JSONObject authorInfo = commitInfo != null ? commitInfo.optJSONObject("author") : null;
-
+            for (RepoMetadata.Commit commit : context.getMetadata().getCommits()) {
                 JSONObject outObj = new JSONObject();
-                outObj.put("sha", c.optString("sha"));
-                outObj.put("author", authorInfo != null ? authorInfo.optString("name") : null);
-                outObj.put("date", authorInfo != null ? authorInfo.optString("date") : null);
-                outObj.put("message", commitInfo != null ? commitInfo.optString("message") : null);
+                outObj.put("sha", commit.getSha());
+                outObj.put("author", commit.getAuthor());
+                outObj.put("date", commit.getDate());
+                outObj.put("message", commit.getMessage());
 
                 outputArray.put(outObj);
             }
@@ -263,62 +216,71 @@ public class ScriptService {
             File outputDir = new File("backend/temp/commits");
             if (!outputDir.exists()) outputDir.mkdirs();
 
-            File outputFile = new File(outputDir, repoName + ".json");
+            File outputFile = new File(outputDir, context.getWorkspaceName() + ".json");
             try (FileWriter writer = new FileWriter(outputFile)) {
                 writer.write(outputArray.toString(2)); // 2-space indentation
             }
 
-            System.out.println("Commits saved to " + outputFile.getAbsolutePath());
+            log.info("Commits saved to {}", outputFile.getAbsolutePath());
 
         } catch (Exception e) {
-            e.printStackTrace();
+            log.error("Failed to fetch commits for {}: {}", context.getWorkspaceName(), e.getMessage());
         }
     }
 
-    public boolean letAiWork() {
-        String analysisPath = new File(basePath, "backend/temp/analysis/" + repoName + ".json")
-                .getAbsolutePath();
-        String tempFilePath = new File(basePath, "backend/temp/files/" + repoName + ".java")
-                .getAbsolutePath();
-        String repoDir = new File(basePath, "backend/temp/repos/" + repoName).getAbsolutePath();
+    /**
+     * Picks the files the pull request stage fixes: up to five files, each with only the violations
+     * of its error blocks. This is all a resumed job needs from the analysis.
+     */
+    public AnalysisReport selectFiles(AnalysisReport report) {
+        List<FileManager> fileManagers = FileManager.analyze(report);
+        AnalysisReport selection = new AnalysisReport();
+        for (FileManager fileManager : fileManagers.subList(0, Math.min(5, fileManagers.size()))) {
+            for (int i = 0; i < fileManager.getErrorCount(); i++) {
+                selection.addViolation(fileManager.getViolation(i));
+            }
+        }
+        return selection;
+    }
+
+    /**
+     * Fixes the files picked by {@link #selectFiles} and opens one pull request per fixed file through
+     * the {@link PullRequestPipeline}. Progress is recorded in the checkpoint, so a resumed job
+     * continues with the same files where it stopped.
+     * @return URLs of the opened pull requests (empty only when no file needed fixing),
+     *         or null if the stage failed or none of the selected files could be fixed
+     */
+    public List<String> letAiWork(JobContext context, AnalysisReport selection, JobCheckpoint checkpoint) {
+        String workspace = context.getWorkspaceName();
+        String repoDir = new File(basePath, "backend/temp/repos/" + workspace).getAbsolutePath();
         try {
-            List<FileManager> fileManagers = FileManager.analyze(analysisPath);
-            int min = Math.min(5, fileManagers.size());
-            for (int i = 0; i < min; i++) {
-                FileManager fg = fileManagers.get(i);
-                FileEditor.processFile(fg ,tempFilePath, false);
-
-                String branch = commitOnNewBranch(repoDir, fg.getFilePath(),
-                        tempFilePath, commit, gitHubToken, forkOwner, repoName, "main");
-                githubService.createCrossForkPR(forkOwner, repoName, repoOwner,
-                        repoName, branch, "main", title, body);
+            List<FileManager> fileManagers = FileManager.analyze(selection);
+            int min = fileManagers.size();
+            gitService.configureRemote(repoDir, gitHubToken, forkOwner, context.getRepoName());
+            List<String> pullRequests = pullRequestPipeline.run(context, fileManagers, repoDir,
+                    forkOwner, checkpoint);
+            if (pullRequests.isEmpty() && min > 0) {
+                // nothing was fixed, e.g. every LLM call failed; must not be cached as a clean result
+                log.warn("None of the {} selected files of {} led to a pull request", min, workspace);
+                return null;
             }
+            return pullRequests;
 
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception e) {
-            return false;
+            log.error("Error while fixing files for {}: {}", workspace, e.getMessage(), e);
+            return null;
         }
-        return true;
     }
 
     public boolean testAi() {
-        try {
-            URL url = new URL("https://api.cerebras.ai/v1/chat/completions");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("POST");
-            conn.setRequestProperty("Authorization", "Bearer " + apiKey);
-            conn.setRequestProperty("Content-Type", "application/json");
-            conn.setDoOutput(true);
-
-            // Minimal payload
-            String payload = "{\"model\":\"qwen-3-235b-a22b-instruct-2507\",\"messages\":[{\"role\":\"system\",\"content\":\"ping\"}],\"max_tokens\":1}";
-            conn.getOutputStream().write(payload.getBytes());
-            return conn.getResponseCode() == 200; // true if API works
-        } catch (Exception e) {
-            return false;
-        }
+        return llmClient.ping();
     }
 
-    public boolean cleanResources() {
+    public boolean cleanResources(JobContext context) {
+        String repoName = context.getWorkspaceName();
         try{
             File scriptFile = new File(basePath, "backend/scripts/remove_resources.sh");
             String scriptPath = scriptFile.getAbsolutePath();
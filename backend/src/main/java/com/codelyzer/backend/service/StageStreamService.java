@@ -0,0 +1,90 @@
+package com.codelyzer.backend.service;
+
+import com.codelyzer.backend.entity.Stages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-job {@link Stages} streams.
+ * Each running job owns a replay-latest sink, so a subscriber only ever holds the newest snapshot
+ * no matter how slowly it reads. The sink is released when the job finishes and only the final
+ * snapshot is kept in a small bounded history.
+ */
+@Service
+public class StageStreamService {
+    private static final Logger log = LoggerFactory.getLogger(StageStreamService.class);
+    private static final Sinks.EmitFailureHandler RETRY_ON_CONTENTION =
+            Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100));
+
+    private final Map<String, Sinks.Many<Stages>> running = new ConcurrentHashMap<>();
+    private final Map<String, Stages> finished;
+    private final Sinks.Many<Stages> allJobs = Sinks.many().multicast().directBestEffort();
+
+    public StageStreamService(@Value("${codelyzer.jobs.finished-history:1000}") int finishedHistory) {
+        this.finished = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Stages> eldest) {
+                return size() > finishedHistory;
+            }
+        });
+    }
+
+    public void open(String jobId) {
+        running.put(jobId, Sinks.many().replay().latest());
+    }
+
+    /**
+     * Publishes an immutable copy of the given stages for the job.
+     */
+    public void publish(String jobId, Stages stages) {
+        Stages snapshot = stages.snapshot();
+        Sinks.Many<Stages> sink = running.get(jobId);
+        if (sink == null) {
+            log.warn("Dropping stages update for unknown job {}", jobId);
+            return;
+        }
+        sink.emitNext(snapshot, RETRY_ON_CONTENTION);
+        allJobs.tryEmitNext(snapshot);
+    }
+
+    /**
+     * Completes the job stream and releases its sink.
+     */
+    public void complete(String jobId, Stages stages) {
+        finished.put(jobId, stages.snapshot());
+        Sinks.Many<Stages> sink = running.remove(jobId);
+        if (sink != null) {
+            sink.emitComplete(RETRY_ON_CONTENTION);
+        }
+    }
+
+    /**
+     * Stream for one job, coalesced to the latest snapshot under backpressure.
+     */
+    public Optional<Flux<Stages>> stream(String jobId) {
+        Sinks.Many<Stages> sink = running.get(jobId);
+        if (sink != null) {
+            return Optional.of(sink.asFlux().onBackpressureLatest());
+        }
+        Stages last = finished.get(jobId);
+        return Optional.ofNullable(last).map(Flux::just);
+    }
+
+    /**
+     * Updates of every job; slow subscribers only see the latest update.
+     */
+    public Flux<Stages> streamAll() {
+        return allJobs.asFlux().onBackpressureLatest();
+    }
+}
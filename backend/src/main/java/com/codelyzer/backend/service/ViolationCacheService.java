@@ -0,0 +1,180 @@
+package com.codelyzer.backend.service;
+
+import com.codelyzer.backend.entity.Violation;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Persistent per-file violation cache.
+ * Entries are keyed by the git blob id of the file content and a hash of the Checkstyle
+ * configuration, so unchanged files are never audited twice, across runs and repositories.
+ * Entries not used within {@code max-age-days} are deleted by a periodic sweep; a hit refreshes
+ * the entry's modification time at most once a day, so that time tracks its last use.
+ * Layout: {@code <dir>/<configHash>/<first two hex chars>/<rest of blob id>.json}.
+ */
+@Service
+public class ViolationCacheService {
+    private static final Logger log = LoggerFactory.getLogger(ViolationCacheService.class);
+    // a hit only rewrites the entry's modification time when it is older than this
+    private static final Duration TOUCH_INTERVAL = Duration.ofDays(1);
+    final String basePath = new File("").getAbsolutePath();
+
+    private final boolean enabled;
+    private final Path cacheDir;
+    private final Duration maxAge;
+
+    public ViolationCacheService(@Value("${codelyzer.analysis.cache.enabled:true}") boolean enabled,
+                                 @Value("${codelyzer.analysis.cache.dir:backend/temp/cache/violations}")
+                                 String cacheDir,
+                                 @Value("${codelyzer.analysis.cache.max-age-days:30}") long maxAgeDays) {
+        this.enabled = enabled;
+        this.cacheDir = Paths.get(basePath).resolve(cacheDir);
+        this.maxAge = Duration.ofDays(Math.max(1, maxAgeDays));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Computes the id git would give this file's content ({@code git hash-object}).
+     */
+    public static String blobId(byte[] content) {
+        MessageDigest sha1 = digest("SHA-1");
+        sha1.update(("blob " + content.length + "\0").getBytes(StandardCharsets.US_ASCII));
+        sha1.update(content);
+        return HexFormat.of().formatHex(sha1.digest());
+    }
+
+    public static String blobId(File file) throws IOException {
+        return blobId(Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Hash identifying the configuration and Checkstyle version that produced a cache entry.
+     */
+    public static String configHash(byte[] configContent, String checkstyleVersion) {
+        MessageDigest sha256 = digest("SHA-256");
+        sha256.update(configContent);
+        sha256.update(String.valueOf(checkstyleVersion).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(sha256.digest()).substring(0, 16);
+    }
+
+    /**
+     * @return the cached violations re-pointed at {@code file}, or null on a miss
+     */
+    public List<Violation> lookup(String configHash, String blobId, File file) {
+        if (!enabled) return null;
+        Path entry = entryPath(configHash, blobId);
+        try {
+            Instant lastUsed = Files.getLastModifiedTime(entry).toInstant();
+            if (lastUsed.isBefore(Instant.now().minus(TOUCH_INTERVAL))) {
+                Files.setLastModifiedTime(entry, FileTime.from(Instant.now()));
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        try {
+            JSONObject json = new JSONObject(Files.readString(entry));
+            // some checks (e.g. OuterTypeFilename) depend on the file name, not just the content
+            if (!file.getName().equals(json.optString("name"))) return null;
+
+            JSONArray errors = json.getJSONArray("violations");
+            List<Violation> violations = new ArrayList<>(errors.length());
+            String filePath = file.getAbsolutePath();
+            for (int i = 0; i < errors.length(); i++) {
+                violations.add(Violation.fromJson(filePath, errors.getJSONObject(i)));
+            }
+            return violations;
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable violation cache entry {}: {}", entry, e.getMessage());
+            return null;
+        }
+    }
+
+    public void store(String configHash, String blobId, File file, List<Violation> violations) {
+        if (!enabled) return;
+        Path entry = entryPath(configHash, blobId);
+        JSONArray errors = new JSONArray();
+        violations.forEach(violation -> errors.put(violation.toJson()));
+        JSONObject json = new JSONObject()
+                .put("name", file.getName())
+                .put("violations", errors);
+        try {
+            Files.createDirectories(entry.getParent());
+            // write then rename, so concurrent jobs never read a half-written entry
+            Path temp = entry.resolveSibling(entry.getFileName() + "." + UUID.randomUUID() + ".tmp");
+            Files.writeString(temp, json.toString());
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to store violation cache entry {}: {}", entry, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes entries, and temp files of interrupted writes, not used within the maximum age.
+     */
+    @Scheduled(fixedDelayString = "${codelyzer.analysis.cache.sweep-interval-minutes:1440}",
+            timeUnit = TimeUnit.MINUTES)
+    public void evictExpired() {
+        if (!enabled || !Files.isDirectory(cacheDir)) return;
+        Instant cutoff = Instant.now().minus(maxAge);
+        int evicted = 0;
+        try (Stream<Path> paths = Files.walk(cacheDir)) {
+            for (Path path : paths.filter(Files::isRegularFile).toList()) {
+                try {
+                    if (Files.getLastModifiedTime(path).toInstant().isBefore(cutoff)) {
+                        Files.deleteIfExists(path);
+                        evicted++;
+                    }
+                } catch (IOException e) {
+                    log.debug("Could not evict violation cache entry {}: {}", path, e.getMessage());
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Violation cache eviction failed: {}", e.getMessage());
+        }
+        if (evicted > 0) {
+            log.info("Evicted {} violation cache entries unused for {} days", evicted, maxAge.toDays());
+        }
+    }
+
+    private Path entryPath(String configHash, String blobId) {
+        return cacheDir.resolve(configHash)
+                .resolve(blobId.substring(0, 2))
+                .resolve(blobId.substring(2) + ".json");
+    }
+
+    private static MessageDigest digest(String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + " not available", e);
+        }
+    }
+}
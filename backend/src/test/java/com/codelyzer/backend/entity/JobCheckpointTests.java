@@ -0,0 +1,60 @@
+package com.codelyzer.backend.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobCheckpointTests {
+
+	private static JobCheckpoint checkpoint() {
+		JobCheckpoint checkpoint = JobCheckpoint.start(JobContext.fromRepoUrl("https://github.com/owner/repo"));
+		checkpoint.startAt("abc123");
+		checkpoint.recordFork("https://github.com/Codelyzer-Bot/repo");
+		checkpoint.recordClone("/tmp/repos/repo");
+		AnalysisReport selection = new AnalysisReport();
+		selection.addViolation(new Violation("src/A.java", 3, 5, "warning", "Line is too long", "LineLength"));
+		checkpoint.recordSelection(selection);
+		checkpoint.recordFixed("src/A.java", "/tmp/files/repo-0.java");
+		checkpoint.recordPushed("src/A.java", "codelyzer-patch-1");
+		checkpoint.recordPullRequest("src/A.java", "https://github.com/owner/repo/pull/1");
+		checkpoint.recordFixed("src/B.java", "/tmp/files/repo-1.java");
+		return checkpoint;
+	}
+
+	@Test
+	void survivesJsonRoundTrip() {
+		JobCheckpoint original = checkpoint();
+		original.setStatus(JobCheckpoint.Status.FAILED);
+
+		JobCheckpoint restored = JobCheckpoint.fromJson(original.toJson());
+
+		assertThat(restored.getJobId()).isEqualTo(original.getJobId());
+		assertThat(restored.getRepoOwner()).isEqualTo("owner");
+		assertThat(restored.getRepoName()).isEqualTo("repo");
+		assertThat(restored.getStatus()).isEqualTo(JobCheckpoint.Status.FAILED);
+		assertThat(restored.getHeadSha()).isEqualTo("abc123");
+		assertThat(restored.getForkRepoURL()).isEqualTo("https://github.com/Codelyzer-Bot/repo");
+		assertThat(restored.getCloneDir()).isEqualTo("/tmp/repos/repo");
+		assertThat(restored.getSelection().getViolationsByFile()).containsOnlyKeys("src/A.java");
+		assertThat(restored.getSelection().getViolationsByFile().get("src/A.java").get(0).getLine()).isEqualTo(3);
+		assertThat(restored.getBranch("src/A.java")).isEqualTo("codelyzer-patch-1");
+		assertThat(restored.getFixedFile("src/B.java")).isEqualTo("/tmp/files/repo-1.java");
+		assertThat(restored.getBranch("src/B.java")).isNull();
+		assertThat(restored.getPullRequests()).containsExactly("https://github.com/owner/repo/pull/1");
+	}
+
+	@Test
+	void newHeadCommitDropsCommitBoundOutputs() {
+		JobCheckpoint checkpoint = checkpoint();
+
+		assertThat(checkpoint.startAt("abc123")).isFalse();
+		assertThat(checkpoint.startAt("def456")).isTrue();
+
+		assertThat(checkpoint.getHeadSha()).isEqualTo("def456");
+		assertThat(checkpoint.getForkRepoURL()).isEqualTo("https://github.com/Codelyzer-Bot/repo");
+		assertThat(checkpoint.getCloneDir()).isNull();
+		assertThat(checkpoint.getSelection()).isNull();
+		assertThat(checkpoint.getFixedFile("src/B.java")).isNull();
+		assertThat(checkpoint.getPullRequests()).isEmpty();
+	}
+}
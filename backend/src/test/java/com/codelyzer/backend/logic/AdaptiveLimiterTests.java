@@ -0,0 +1,63 @@
+package com.codelyzer.backend.logic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimiterTests {
+
+	private static void call(AdaptiveLimiter limiter, AdaptiveLimiter.Signal signal) {
+		assertThat(limiter.tryAcquire()).isTrue();
+		limiter.release(signal);
+	}
+
+	@Test
+	void roundOfSuccessesRaisesLimitByOne() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter(4, 1, 10);
+
+		for (int i = 0; i < 4; i++) {
+			call(limiter, AdaptiveLimiter.Signal.SUCCESS);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(4);
+		call(limiter, AdaptiveLimiter.Signal.SUCCESS);
+
+		assertThat(limiter.getLimit()).isEqualTo(5);
+	}
+
+	@Test
+	void overloadHalvesAndSlowCallTrimsLimit() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter(10, 1, 16);
+
+		call(limiter, AdaptiveLimiter.Signal.SLOW);
+		assertThat(limiter.getLimit()).isEqualTo(9);
+		call(limiter, AdaptiveLimiter.Signal.OVERLOADED);
+		assertThat(limiter.getLimit()).isEqualTo(4);
+		call(limiter, AdaptiveLimiter.Signal.IGNORED);
+		assertThat(limiter.getLimit()).isEqualTo(4);
+	}
+
+	@Test
+	void limitStaysWithinBounds() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter(3, 2, 3);
+
+		call(limiter, AdaptiveLimiter.Signal.OVERLOADED);
+		assertThat(limiter.getLimit()).isEqualTo(2);
+		for (int i = 0; i < 10; i++) {
+			call(limiter, AdaptiveLimiter.Signal.SUCCESS);
+		}
+		assertThat(limiter.getLimit()).isEqualTo(3);
+	}
+
+	@Test
+	void rejectsCallsBeyondLimit() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter(2, 1, 4);
+
+		assertThat(limiter.tryAcquire()).isTrue();
+		assertThat(limiter.tryAcquire()).isTrue();
+		assertThat(limiter.tryAcquire()).isFalse();
+		limiter.release(AdaptiveLimiter.Signal.IGNORED);
+
+		assertThat(limiter.getInFlight()).isEqualTo(1);
+		assertThat(limiter.tryAcquire()).isTrue();
+	}
+}
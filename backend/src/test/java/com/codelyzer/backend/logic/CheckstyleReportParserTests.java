@@ -0,0 +1,63 @@
+package com.codelyzer.backend.logic;
+
+import com.codelyzer.backend.entity.Violation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckstyleReportParserTests {
+
+	private static final String REPORT = """
+			<?xml version="1.0" encoding="UTF-8"?>
+			<checkstyle version="11.1.0">
+			<file name="/repo/A.java">
+			<error line="3" column="5" severity="warning" message="first" source="a.Check"/>
+			<error line="9" severity="warning" message="second" source="b.Check"/>
+			</file>
+			<file name="/repo/B.java">
+			</file>
+			<file name="/repo/C.java">
+			<error line="1" column="1" severity="error" message="third" source="c.Check"/>
+			</file>
+			</checkstyle>
+			""";
+
+	@Test
+	void streamsViolationsPerFile(@TempDir Path dir) throws Exception {
+		Path report = dir.resolve("report.xml");
+		Files.writeString(report, REPORT);
+
+		List<String> files = new ArrayList<>();
+		List<Violation> all = new ArrayList<>();
+		CheckstyleReportParser.parse(report, (filePath, violations) -> {
+			files.add(filePath);
+			all.addAll(violations);
+			return true;
+		});
+
+		assertThat(files).containsExactly("/repo/A.java", "/repo/B.java", "/repo/C.java");
+		assertThat(all).extracting(Violation::getMessage).containsExactly("first", "second", "third");
+		assertThat(all.get(1).getColumn()).isEqualTo(-1);
+		assertThat(all.get(2).getSource()).isEqualTo("c.Check");
+	}
+
+	@Test
+	void stopsWhenHandlerReturnsFalse(@TempDir Path dir) throws Exception {
+		Path report = dir.resolve("report.xml");
+		Files.writeString(report, REPORT);
+
+		List<String> files = new ArrayList<>();
+		CheckstyleReportParser.parse(report, (filePath, violations) -> {
+			files.add(filePath);
+			return false;
+		});
+
+		assertThat(files).containsExactly("/repo/A.java");
+	}
+}
@@ -0,0 +1,62 @@
+package com.codelyzer.backend.logic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTests {
+
+	@Test
+	void opensAfterConsecutiveFailures() {
+		CircuitBreaker breaker = new CircuitBreaker(2, 60_000);
+
+		breaker.recordFailure();
+		breaker.recordSuccess();
+		breaker.recordFailure();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+		breaker.recordFailure();
+
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.allowRequest()).isFalse();
+	}
+
+	@Test
+	void halfOpenLetsSingleTrialThroughAndClosesOnSuccess() {
+		CircuitBreaker breaker = new CircuitBreaker(1, 0);
+		breaker.recordFailure();
+
+		assertThat(breaker.allowRequest()).isTrue();
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+		assertThat(breaker.allowRequest()).isFalse();
+		breaker.recordSuccess();
+
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(breaker.allowRequest()).isTrue();
+		assertThat(breaker.allowRequest()).isTrue();
+	}
+
+	@Test
+	void failedTrialReopens() {
+		CircuitBreaker breaker = new CircuitBreaker(3, 0);
+		for (int i = 0; i < 3; i++) {
+			breaker.recordFailure();
+		}
+
+		assertThat(breaker.allowRequest()).isTrue();
+		breaker.recordFailure();
+
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+	}
+
+	@Test
+	void ignoredTrialFreesTheSlot() {
+		CircuitBreaker breaker = new CircuitBreaker(1, 0);
+		breaker.recordFailure();
+
+		assertThat(breaker.allowRequest()).isTrue();
+		breaker.recordIgnored();
+
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+		assertThat(breaker.allowRequest()).isTrue();
+	}
+}
@@ -0,0 +1,41 @@
+package com.codelyzer.backend.logic;
+
+import com.codelyzer.backend.entity.AnalysisReport;
+import com.codelyzer.backend.entity.Violation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileManagerTests {
+
+	@TempDir
+	Path dir;
+
+	private String file(String name, int lines) throws Exception {
+		Path path = dir.resolve(name);
+		Files.write(path, Collections.nCopies(lines, "int x;"));
+		return path.toString();
+	}
+
+	private static Violation violation(String filePath, int line) {
+		return new Violation(filePath, line, 1, "warning", "Line is too long", "LineLength");
+	}
+
+	@Test
+	void leavesOutFilesThatCannotBeFixed() throws Exception {
+		String large = file("A.java", 301);
+		String fileLevel = file("B.java", 10);
+		String small = file("C.java", 10);
+		AnalysisReport report = new AnalysisReport();
+		report.addViolation(violation(large, 3));
+		report.addViolation(violation(fileLevel, -1));
+		report.addViolation(violation(small, 3));
+
+		assertThat(FileManager.analyze(report)).extracting(FileManager::getFilePath).containsExactly(small);
+	}
+}
@@ -0,0 +1,63 @@
+package com.codelyzer.backend.logic;
+
+import com.codelyzer.backend.entity.Violation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FixerRegistryTests {
+
+	private final FixerRegistry registry = new FixerRegistry(List.of(new FileTabCharacterFixer(),
+			new IndentationFixer(), new EmptyLineSeparatorFixer(), new WhitespaceFixer()));
+
+	private static Violation violation(int column, String message, String check) {
+		return new Violation("/repo/A.java", 2, column, "warning", message,
+				"com.puppycrawl.tools.checkstyle.checks." + check + "Check");
+	}
+
+	@Test
+	void reindentsLineToExpectedLevel() {
+		String fixed = registry.fix(List.of("class A {", "    int x;", "}"), 1,
+				violation(-1, "'member def type' has incorrect indentation level 4, expected level should be 2.",
+						"indentation.Indentation"));
+
+		assertThat(fixed).isEqualTo("class A {\n  int x;\n}");
+	}
+
+	@Test
+	void addsMissingWhitespaceAfterToken() {
+		String fixed = registry.fix(List.of("{", "  int x =1;", "}"), 1,
+				violation(9, "'=' is not followed by whitespace.", "whitespace.WhitespaceAround"));
+
+		assertThat(fixed).isEqualTo("{\n  int x = 1;\n}");
+	}
+
+	@Test
+	void separatesDeclarationFromPreviousLine() {
+		String fixed = registry.fix(List.of("  int x;", "  void f() {}"), 1,
+				violation(3, "'METHOD_DEF' should be separated from previous line.",
+						"whitespace.EmptyLineSeparator"));
+
+		assertThat(fixed).isEqualTo("  int x;\n\n  void f() {}");
+	}
+
+	@Test
+	void replacesTabs() {
+		String fixed = registry.fix(List.of("{", "\t\tint x;", "}"), 1,
+				violation(1, "File contains tab characters (this is the first instance).",
+						"whitespace.FileTabCharacter"));
+
+		assertThat(fixed).isEqualTo("{\n    int x;\n}");
+	}
+
+	@Test
+	void leavesUnknownChecksAndMismatchedLinesToTheLlm() {
+		assertThat(registry.fix(List.of("a", "b"), 1,
+				violation(1, "Missing a Javadoc comment.", "javadoc.MissingJavadocMethod"))).isNull();
+		assertThat(registry.fix(List.of("a", "      b"), 1,
+				violation(-1, "'b' has incorrect indentation level 4, expected level should be 2.",
+						"indentation.Indentation"))).isNull();
+	}
+}
@@ -0,0 +1,74 @@
+package com.codelyzer.backend.logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StageGraphTests {
+
+	private static Map<String, StageGraph.Outcome> run(StageGraph graph) {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			return graph.run(executor);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void stageStartsAfterItsDependencies() {
+		List<String> started = Collections.synchronizedList(new ArrayList<>());
+		StageGraph graph = new StageGraph()
+				.stage("clone", () -> started.add("clone"))
+				.stage("fork", () -> started.add("fork"))
+				.stage("analysis", () -> started.add("analysis"), "clone")
+				.stage("pull-requests", () -> started.add("pull-requests"), "analysis", "fork");
+
+		Map<String, StageGraph.Outcome> outcomes = run(graph);
+
+		assertThat(outcomes).containsOnlyKeys("clone", "fork", "analysis", "pull-requests");
+		assertThat(outcomes.values()).containsOnly(StageGraph.Outcome.SUCCEEDED);
+		assertThat(started.indexOf("analysis")).isGreaterThan(started.indexOf("clone"));
+		assertThat(started.indexOf("pull-requests"))
+				.isGreaterThan(started.indexOf("analysis"))
+				.isGreaterThan(started.indexOf("fork"));
+	}
+
+	@Test
+	void failureSkipsDependentStagesOnly() {
+		StageGraph graph = new StageGraph()
+				.stage("clone", () -> false)
+				.stage("commits", () -> {
+					throw new IllegalStateException("network down");
+				})
+				.stage("analysis", () -> true, "clone")
+				.stage("json-report", () -> true, "analysis")
+				.stage("fork", () -> true);
+
+		Map<String, StageGraph.Outcome> outcomes = run(graph);
+
+		assertThat(outcomes).containsEntry("clone", StageGraph.Outcome.FAILED)
+				.containsEntry("commits", StageGraph.Outcome.FAILED)
+				.containsEntry("analysis", StageGraph.Outcome.SKIPPED)
+				.containsEntry("json-report", StageGraph.Outcome.SKIPPED)
+				.containsEntry("fork", StageGraph.Outcome.SUCCEEDED);
+	}
+
+	@Test
+	void rejectsUndeclaredDependency() {
+		StageGraph graph = new StageGraph().stage("clone", () -> true);
+
+		assertThatThrownBy(() -> graph.stage("analysis", () -> true, "clone", "fork"))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> graph.stage("clone", () -> true))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
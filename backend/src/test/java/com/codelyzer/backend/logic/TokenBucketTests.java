@@ -0,0 +1,54 @@
+package com.codelyzer.backend.logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTests {
+
+	@Test
+	void burstIsFreeThenReservationsWaitForRefill() {
+		TokenBucket bucket = new TokenBucket(2, 1);
+
+		assertThat(bucket.reserve()).isZero();
+		assertThat(bucket.reserve()).isZero();
+
+		assertThat(bucket.reserve()).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+	}
+
+	@Test
+	void refillsOverTimeUpToCapacity() throws InterruptedException {
+		TokenBucket bucket = new TokenBucket(1, 1000);
+		assertThat(bucket.reserve()).isZero();
+
+		Thread.sleep(50);
+
+		assertThat(bucket.reserve()).isZero();
+		assertThat(bucket.reserve()).isPositive();
+	}
+
+	@Test
+	void rateFromRateLimitHeadersSpreadsRemainingBudget() {
+		TokenBucket bucket = new TokenBucket(1, 0.001);
+		assertThat(bucket.reserve()).isZero();
+
+		// X-RateLimit-Remaining: 30 with the window resetting in 60 s
+		bucket.setRate(30 / 60d);
+
+		assertThat(bucket.reserve()).isBetween(TimeUnit.MILLISECONDS.toNanos(1900), TimeUnit.SECONDS.toNanos(2));
+	}
+
+	@Test
+	void pauseHoldsBackReservationsUntilReset() {
+		TokenBucket bucket = new TokenBucket(5, 100);
+
+		// X-RateLimit-Remaining: 0, or Retry-After: 10
+		bucket.pauseFor(TimeUnit.SECONDS.toNanos(10));
+
+		assertThat(bucket.reserve()).isGreaterThan(TimeUnit.SECONDS.toNanos(9));
+		bucket.pauseFor(TimeUnit.SECONDS.toNanos(1));
+		assertThat(bucket.reserve()).isGreaterThan(TimeUnit.SECONDS.toNanos(9));
+	}
+}
@@ -0,0 +1,55 @@
+package com.codelyzer.backend.logic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UnifiedDiffTests {
+
+	private static final List<String> BLOCK = List.of(
+			"class A {",
+			"    int x;",
+			"",
+			"    void f() {}",
+			"}");
+
+	@Test
+	void appliesHunkAtStatedLine() {
+		String diff = """
+				--- a/A.java
+				+++ b/A.java
+				@@ -1,3 +1,3 @@
+				 class A {
+				-    int x;
+				+  int x;
+				 
+				""";
+
+		assertThat(UnifiedDiff.apply(BLOCK, diff))
+				.containsExactly("class A {", "  int x;", "", "    void f() {}", "}");
+	}
+
+	@Test
+	void findsHunkWhenLineNumbersAreOff() {
+		String diff = """
+				@@ -1,2 +1,3 @@
+				 
+				+    /** Does nothing. */
+				     void f() {}
+				""";
+
+		assertThat(UnifiedDiff.apply(BLOCK, diff))
+				.containsExactly("class A {", "    int x;", "", "    /** Does nothing. */", "    void f() {}", "}");
+	}
+
+	@Test
+	void rejectsDiffThatDoesNotMatch() {
+		assertThatThrownBy(() -> UnifiedDiff.apply(BLOCK, "@@ -2,1 +2,1 @@\n-    int y;\n+  int y;\n"))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> UnifiedDiff.apply(BLOCK, "class A {}"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
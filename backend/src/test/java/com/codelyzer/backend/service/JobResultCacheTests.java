@@ -0,0 +1,28 @@
+package com.codelyzer.backend.service;
+
+import com.codelyzer.backend.entity.JobResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobResultCacheTests {
+
+	private final JobResultCache cache = new JobResultCache(60, 10);
+
+	@Test
+	void storedResultIsFoundByRepositoryAndHeadCommit() {
+		cache.put(new JobResult("job-1", "Owner/Repo", "abc123", null, null, List.of()));
+
+		assertThat(cache.get(JobResultCache.key("owner", "repo", "abc123"))).isPresent();
+		assertThat(cache.getByJob("job-1")).isPresent();
+	}
+
+	@Test
+	void resultWithoutHeadCommitIsNotStored() {
+		cache.put(new JobResult("job-1", "owner/repo", null, null, null, List.of()));
+
+		assertThat(cache.getByJob("job-1")).isEmpty();
+	}
+}
@@ -0,0 +1,82 @@
+package com.codelyzer.backend.service;
+
+import com.codelyzer.backend.entity.AnalysisReport;
+import com.codelyzer.backend.entity.JobCheckpoint;
+import com.codelyzer.backend.entity.JobContext;
+import com.codelyzer.backend.entity.Violation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobStoreTests {
+
+	@TempDir
+	Path dir;
+
+	private JobStore store() {
+		return new JobStore(true, dir.toString(), 7);
+	}
+
+	@Test
+	void failedJobIsReloadedWithItsSelection() {
+		JobStore store = store();
+		JobCheckpoint checkpoint = store.start(JobContext.fromRepoUrl("https://github.com/Owner/Repo"));
+		checkpoint.startAt("abc123");
+		checkpoint.recordFork("https://github.com/Codelyzer-Bot/Repo");
+		AnalysisReport selection = new AnalysisReport();
+		selection.addViolation(new Violation("src/A.java", 3, 5, "warning", "Line is too long", "LineLength"));
+		checkpoint.recordSelection(selection);
+		checkpoint.recordPullRequest("src/A.java", "https://github.com/Owner/Repo/pull/1");
+		store.finish(checkpoint, JobCheckpoint.Status.FAILED);
+
+		JobStore restarted = store();
+
+		assertThat(restarted.interrupted()).isEmpty();
+		JobCheckpoint restored = restarted.findUnfinished("owner", "repo").orElseThrow();
+		assertThat(restored.getJobId()).isEqualTo(checkpoint.getJobId());
+		assertThat(restored.getHeadSha()).isEqualTo("abc123");
+		assertThat(restored.getForkRepoURL()).isEqualTo("https://github.com/Codelyzer-Bot/Repo");
+		assertThat(restored.getPullRequests()).containsExactly("https://github.com/Owner/Repo/pull/1");
+		assertThat(restored.getSelection().getViolationsByFile().get("src/A.java").get(0).getSource())
+				.isEqualTo("LineLength");
+	}
+
+	@Test
+	void runningJobIsReportedAsInterrupted() {
+		JobCheckpoint checkpoint = store().start(JobContext.fromRepoUrl("https://github.com/owner/repo"));
+
+		assertThat(store().interrupted()).extracting(JobCheckpoint::getJobId)
+				.containsExactly(checkpoint.getJobId());
+	}
+
+	@Test
+	void finishedJobLeavesMemory() {
+		JobStore store = store();
+		JobCheckpoint checkpoint = store.start(JobContext.fromRepoUrl("https://github.com/owner/repo"));
+
+		store.finish(checkpoint, JobCheckpoint.Status.DONE);
+
+		assertThat(store.findUnfinished("owner", "repo")).isEmpty();
+		assertThat(store().findUnfinished("owner", "repo")).isEmpty();
+	}
+
+	@Test
+	void expiredJobsAreNotResumedAndFinishedOnesArePurged() throws Exception {
+		JobStore store = new JobStore(true, dir.toString(), 0);
+		JobCheckpoint failed = store.start(JobContext.fromRepoUrl("https://github.com/owner/failed"));
+		store.finish(failed, JobCheckpoint.Status.FAILED);
+		JobCheckpoint done = store.start(JobContext.fromRepoUrl("https://github.com/owner/done"));
+		store.finish(done, JobCheckpoint.Status.DONE);
+		Thread.sleep(10);
+
+		store.purgeFinished();
+
+		assertThat(store.expired()).containsExactly(failed);
+		assertThat(store.findUnfinished("owner", "failed")).isEmpty();
+		assertThat(dir.resolve(failed.getJobId() + ".json")).exists();
+		assertThat(dir.resolve(done.getJobId() + ".json")).doesNotExist();
+	}
+}
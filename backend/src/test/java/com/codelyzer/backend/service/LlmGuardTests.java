@@ -0,0 +1,82 @@
+package com.codelyzer.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LlmGuardTests {
+
+	private static LlmGuard guard() {
+		return new LlmGuard(2, 1, 2, 1, 0, 0, false, 0.95, 1, 0);
+	}
+
+	@Test
+	void callerInterruptedWhileWaitingForLimiterLeavesBreakerTrialFree() throws Exception {
+		LlmGuard guard = guard();
+		LlmGuard.Permit failed = guard.acquire();
+		LlmGuard.Permit held = guard.acquire();
+		// opens the breaker and halves the limit to 1, which the held permit fills
+		failed.fail(LlmException.forStatus(503, -1));
+
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		Thread waiter = new Thread(() -> {
+			try {
+				guard.acquire();
+			} catch (Exception e) {
+				error.set(e);
+			}
+		});
+		waiter.start();
+		while (waiter.getState() != Thread.State.WAITING) {
+			Thread.sleep(1);
+		}
+		waiter.interrupt();
+		waiter.join();
+
+		assertThat(error.get()).isInstanceOf(InterruptedException.class);
+		assertThat(guard.stats()).containsEntry("breaker", "OPEN");
+		held.close();
+		try (LlmGuard.Permit trial = guard.acquire()) {
+			assertThat(guard.stats()).containsEntry("breaker", "HALF_OPEN");
+			trial.success(false);
+		}
+		assertThat(guard.stats()).containsEntry("breaker", "CLOSED");
+	}
+
+	@Test
+	void rejectedCallDoesNotKeepLimiterPermit() throws Exception {
+		LlmGuard guard = new LlmGuard(1, 1, 1, 1, 0, 0, false, 0.95, 1, 60_000);
+		guard.acquire().fail(LlmException.forStatus(500, -1));
+
+		for (int i = 0; i < 3; i++) {
+			assertThatThrownBy(guard::acquire).isInstanceOf(LlmException.class)
+					.hasMessageContaining("circuit breaker is open");
+		}
+
+		assertThat(guard.stats()).containsEntry("inFlight", 0);
+	}
+
+	private static HttpHeaders retryAfter(String... values) {
+		return HttpHeaders.of(values.length == 0 ? Map.of() : Map.of("Retry-After", List.of(values)),
+				(name, value) -> true);
+	}
+
+	@Test
+	void readsRetryAfterInSecondsOrAsHttpDate() {
+		String inOneMinute = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(1));
+
+		assertThat(LlmGuard.retryAfterMillis(retryAfter())).isEqualTo(-1);
+		assertThat(LlmGuard.retryAfterMillis(retryAfter("7"))).isEqualTo(7000);
+		assertThat(LlmGuard.retryAfterMillis(retryAfter(inOneMinute))).isBetween(55_000L, 60_000L);
+		assertThat(LlmGuard.retryAfterMillis(retryAfter("soon"))).isEqualTo(-1);
+	}
+}
@@ -0,0 +1,18 @@
+package com.codelyzer.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RepoCacheServiceTests {
+
+	@Test
+	void mirrorKeyDependsOnHost() {
+		String key = RepoCacheService.mirrorKey("https://github.com/owner/repo.git");
+
+		assertThat(key).startsWith("owner__repo-");
+		assertThat(RepoCacheService.mirrorKey("https://GitHub.com/owner/repo/")).isEqualTo(key);
+		assertThat(RepoCacheService.mirrorKey("https://token@github.com/owner/repo")).isEqualTo(key);
+		assertThat(RepoCacheService.mirrorKey("https://gitlab.com/owner/repo")).isNotEqualTo(key);
+	}
+}
@@ -0,0 +1,49 @@
+package com.codelyzer.backend.service;
+
+import com.codelyzer.backend.entity.Violation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ViolationCacheServiceTests {
+
+	@TempDir
+	Path dir;
+
+	private void age(Path cacheDir, Duration age) throws Exception {
+		try (Stream<Path> paths = Files.walk(cacheDir)) {
+			for (Path path : paths.filter(Files::isRegularFile).toList()) {
+				Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(age)));
+			}
+		}
+	}
+
+	@Test
+	void evictsEntriesNotUsedWithinTheMaximumAge() throws Exception {
+		Path cacheDir = dir.resolve("cache");
+		ViolationCacheService cache = new ViolationCacheService(true, cacheDir.toString(), 30);
+		File file = dir.resolve("A.java").toFile();
+		List<Violation> violations = List.of(new Violation(file.getPath(), 3, 5, "warning", "Line is too long",
+				"LineLength"));
+		cache.store("config", "ab12cd", file, violations);
+		cache.store("config", "ef34ab", file, violations);
+
+		age(cacheDir, Duration.ofDays(31));
+		// a hit marks the entry as used
+		assertThat(cache.lookup("config", "ab12cd", file)).hasSize(1);
+		cache.evictExpired();
+
+		assertThat(cache.lookup("config", "ab12cd", file)).hasSize(1);
+		assertThat(cache.lookup("config", "ef34ab", file)).isNull();
+	}
+}